@@ -14,8 +14,11 @@ import com.github.bingoohuang.westcache.manager.*;
 import com.github.bingoohuang.westcache.outofbox.PackageLimitedKeyer;
 import com.github.bingoohuang.westcache.outofbox.TableCacheFlusher;
 import com.github.bingoohuang.westcache.registry.RegistryTemplate;
+import com.github.bingoohuang.westcache.snapshot.DeltaCacheSnapshot;
 import com.github.bingoohuang.westcache.snapshot.FileCacheSnapshot;
+import com.github.bingoohuang.westcache.snapshot.FileSnapshotMaintainer;
 import com.github.bingoohuang.westcache.snapshot.RedisCacheSnapshot;
+import com.github.bingoohuang.westcache.snapshot.RedisHashCacheSnapshot;
 import com.github.bingoohuang.westcache.utils.Envs;
 import com.github.bingoohuang.westcache.utils.WestCacheOption;
 import lombok.experimental.UtilityClass;
@@ -62,6 +65,7 @@ public class WestCacheRegistry {
         MANAGER_REGISTRY.register("file", new FileCacheManager());
         if (Envs.HAS_DIAMOND) MANAGER_REGISTRY.register("diamond", new DiamondCacheManager());
         if (Envs.HAS_EXPIRING) MANAGER_REGISTRY.register("expiring", new ExpiringMapCacheManager());
+        MANAGER_REGISTRY.register("wheel", new TimingWheelCacheManager());
         if (Envs.HAS_JEDIS) MANAGER_REGISTRY.register(REDIS, new RedisCacheManager());
     }
 
@@ -69,7 +73,11 @@ public class WestCacheRegistry {
 
     static {
         SNAPSHOT_REGISTRY.register("file", new FileCacheSnapshot());
+        SNAPSHOT_REGISTRY.register("filedelta", new DeltaCacheSnapshot(new FileCacheSnapshot()));
+        FileSnapshotMaintainer.startByConfig();
         if (Envs.HAS_JEDIS) SNAPSHOT_REGISTRY.register(REDIS, new RedisCacheSnapshot());
+        if (Envs.HAS_JEDIS) SNAPSHOT_REGISTRY.register("redisdelta", new DeltaCacheSnapshot(new RedisCacheSnapshot()));
+        if (Envs.HAS_JEDIS) SNAPSHOT_REGISTRY.register("redishash", new RedisHashCacheSnapshot());
     }
 
     public static final RegistryTemplate<WestCacheKeyer> KEYER_REGISTRY = new RegistryTemplate<>();
@@ -17,4 +17,23 @@ public interface WestCacheConfig {
      * @return timeout millis.
      */
     long timeoutMillisToSnapshot();
+
+    /**
+     * The max concurrent loaders of a cache namespace, 0 for unlimited.
+     *
+     * @return max concurrent loaders.
+     */
+    default int loaderConcurrency() {
+        return 0;
+    }
+
+    /**
+     * The max millis for a loader to wait when the concurrent loaders
+     * of its cache namespace reach the limit.
+     *
+     * @return wait millis.
+     */
+    default long loaderWaitMillis() {
+        return 1000L;
+    }
 }
@@ -3,6 +3,8 @@ package com.github.bingoohuang.westcache.base;
 import com.github.bingoohuang.westcache.utils.WestCacheOption;
 import com.google.common.base.Optional;
 
+import java.util.concurrent.Callable;
+
 /**
  * @author bingoohuang [bingoohuang@gmail.com] Created on 2016/12/22.
  */
@@ -37,6 +39,45 @@ public interface WestCacheFlusher {
                      String cacheKey,
                      WestCache cache);
 
+    /**
+     * Register the loader of the cache key after its first registration,
+     * the flusher can use it to reload the cache value in the background
+     * instead of invalidating it.
+     *
+     * @param option   WestCacheOption.
+     * @param cacheKey Cache key.
+     * @param loader   loader of the cache value.
+     */
+    default void registerLoader(WestCacheOption option,
+                                String cacheKey,
+                                Callable<WestCacheItem> loader) {
+    }
+
+    /**
+     * Notify the flusher that the cache value is loaded.
+     *
+     * @param option   WestCacheOption.
+     * @param cacheKey Cache key.
+     * @param item     loaded cache item.
+     */
+    default void loaded(WestCacheOption option,
+                        String cacheKey,
+                        WestCacheItem item) {
+    }
+
+    /**
+     * Get the current version of the cache key known by the flusher,
+     * which is stamped on the cache item loaded, so a later flush of
+     * the same version can be skipped.
+     *
+     * @param option   WestCacheOption.
+     * @param cacheKey Cache key.
+     * @return version or null if unknown.
+     */
+    default String getVersion(WestCacheOption option, String cacheKey) {
+        return null;
+    }
+
     /**
      * Flush cache.
      *
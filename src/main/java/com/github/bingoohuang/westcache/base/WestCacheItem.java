@@ -1,13 +1,16 @@
 package com.github.bingoohuang.westcache.base;
 
+import com.github.bingoohuang.westcache.utils.NegativeCaches;
 import com.github.bingoohuang.westcache.utils.WestCacheOption;
 import com.google.common.base.Optional;
 import lombok.Getter;
+import lombok.Setter;
 import lombok.val;
 
 import static com.github.bingoohuang.utils.time.Durations.parse;
 import static com.github.bingoohuang.westcache.utils.ExpireAfterWrites.parseExpireAfterWrite;
 import static org.apache.commons.lang3.StringUtils.isBlank;
+import static org.apache.commons.lang3.StringUtils.isNotEmpty;
 
 /**
  * @author bingoohuang [bingoohuang@gmail.com] Created on 2016/12/29.
@@ -16,21 +19,40 @@ public class WestCacheItem {
     private final Optional optional;
     @Getter private final long durationSeconds;
     private final long expiredAt;
+    /**
+     * The flush version of the cache value when it was loaded, or null if unknown.
+     */
+    @Getter @Setter private volatile String version;
 
     public WestCacheItem(Optional optional, WestCacheOption option) {
         this.optional = optional;
-        val expireWrite = parseExpireAfterWrite(option, optional.orNull());
+        // the absent result expires after negativeTtl if specified
+        val negativeTtl = optional.isPresent() ? null : NegativeCaches.parseNegativeTtl(option);
+        val expireWrite = isBlank(negativeTtl)
+                ? parseExpireAfterWrite(option, optional.orNull()) : negativeTtl;
         if (isBlank(expireWrite)) {
             this.durationSeconds = 0;
             this.expiredAt = 0;
             return;
         }
 
-        val duration = parse("expireAfterWrite", expireWrite);
+        val duration = parse(isBlank(negativeTtl) ? "expireAfterWrite" : "negativeTtl", expireWrite);
         this.durationSeconds = duration;
         this.expiredAt = System.currentTimeMillis() + duration * 1000;
     }
 
+    /**
+     * Create an item expiring after the given seconds, like an adapted ttl.
+     *
+     * @param optional        cache value.
+     * @param durationSeconds seconds to expire after write, 0 for never.
+     */
+    public WestCacheItem(Optional optional, long durationSeconds) {
+        this.optional = optional;
+        this.durationSeconds = durationSeconds;
+        this.expiredAt = durationSeconds > 0 ? System.currentTimeMillis() + durationSeconds * 1000 : 0;
+    }
+
     public Optional getObject() {
         return optional;
     }
@@ -47,5 +69,13 @@ public class WestCacheItem {
         return expiredAt > 0 && System.currentTimeMillis() > expiredAt;
     }
 
-
+    /**
+     * Tell whether the item already holds the flush version.
+     *
+     * @param version flush version.
+     * @return true if the version is not empty and equal to the item version.
+     */
+    public boolean isVersion(String version) {
+        return isNotEmpty(version) && version.equals(this.version);
+    }
 }
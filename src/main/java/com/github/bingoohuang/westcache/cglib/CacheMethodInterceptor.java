@@ -2,6 +2,7 @@ package com.github.bingoohuang.westcache.cglib;
 
 import com.github.bingoohuang.utils.lang.QuietCloseable;
 import com.github.bingoohuang.westcache.base.WestCacheItem;
+import com.github.bingoohuang.westcache.utils.Methods;
 import com.github.bingoohuang.westcache.utils.WestCacheConnector;
 import com.github.bingoohuang.westcache.utils.WestCacheOption;
 import com.google.common.base.Optional;
@@ -44,6 +45,10 @@ public abstract class CacheMethodInterceptor<T> {
         if (WestCacheConnector.isConnectedAndGoon(option, cacheKey))
             return null;
 
+        if (Methods.isFutureReturn(method)) {
+            return FutureCaches.get(option, cacheKey, () -> invokeRaw(obj, args, proxy));
+        }
+
         val start = System.currentTimeMillis();
         @Cleanup QuietCloseable i = () -> {
             val end = System.currentTimeMillis();
@@ -52,7 +57,9 @@ public abstract class CacheMethodInterceptor<T> {
 
         val item = option.getManager().get(option, cacheKey,
                 () -> {
-                    val raw = invokeRaw(obj, args, proxy);
+                    val raw = MissBatchers.isBatched(option)
+                            ? MissBatchers.load(option, obj, method, args)
+                            : invokeRaw(obj, args, proxy);
                     val optional = Optional.fromNullable(raw);
                     return new WestCacheItem(optional, option);
                 });
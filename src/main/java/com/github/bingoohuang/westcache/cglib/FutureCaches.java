@@ -0,0 +1,110 @@
+package com.github.bingoohuang.westcache.cglib;
+
+import com.github.bingoohuang.westcache.base.WestCacheItem;
+import com.github.bingoohuang.westcache.utils.ThreadFactories;
+import com.github.bingoohuang.westcache.utils.WestCacheOption;
+import com.google.common.base.Optional;
+import lombok.SneakyThrows;
+import lombok.experimental.UtilityClass;
+import lombok.val;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Cache the completed values of the methods returning futures.
+ * <p>
+ * The completed value, instead of the future, is cached by the manager,
+ * so it can be serialized to snapshots or redis like other values, and a
+ * cached value is returned as a completed future. A miss invokes the method
+ * and is loaded in the background by the normal manager path, with a loader
+ * waiting for the method's future, so the direct values, snapshots and flushers
+ * work as for the other methods, and a reload invokes the method again. The
+ * concurrent calls of the same key share the future in flight, and an
+ * exceptional completion is never cached, so the next call invokes the
+ * method again.
+ * <p>
+ * With specs loaderTimeoutMillis, the shared future is completed by a
+ * LoaderTimeoutException when the method's future is not done in time,
+ * like any other loader, and the next call invokes the method again.
+ *
+ * @author bingoohuang [bingoohuang@gmail.com] Created on 2026/10/19.
+ */
+@UtilityClass
+class FutureCaches {
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlights = new ConcurrentHashMap<>();
+    private final ExecutorService loaders = ThreadFactories.newTaskExecutor("westcache-future-");
+
+    @SneakyThrows
+    public CompletableFuture<Object> get(final WestCacheOption option,
+                                         final String cacheKey,
+                                         final Callable<Object> invoker) {
+        if (option.getFlusher().isKeyEnabled(option, cacheKey)) {
+            val cached = option.getManager().get(option, cacheKey);
+            if (cached != null && cached.isPresent()) {
+                return CompletableFuture.completedFuture(cached.orNull());
+            }
+        }
+
+        val created = new CompletableFuture<Object>();
+        val inFlight = inFlights.putIfAbsent(cacheKey, created);
+        if (inFlight != null) return inFlight;
+
+        Future<?> raw;
+        try {
+            raw = (Future<?>) invoker.call();
+        } catch (Exception ex) {
+            inFlights.remove(cacheKey, created);
+            throw ex;
+        }
+
+        if (raw == null) {
+            inFlights.remove(cacheKey, created);
+            return null;
+        }
+
+        // the future of this call is used by the first load only, the reloads invoke the method again
+        val first = new AtomicReference<Future<?>>(raw);
+        Callable<WestCacheItem> loader = () -> {
+            Future<?> future = first.getAndSet(null);
+            if (future == null) future = (Future<?>) invoker.call();
+            return new WestCacheItem(Optional.fromNullable(join(future)), option);
+        };
+
+        loaders.execute(() -> load(option, cacheKey, loader, created));
+        return created;
+    }
+
+    private void load(WestCacheOption option, String cacheKey,
+                      Callable<WestCacheItem> loader, CompletableFuture<Object> created) {
+        WestCacheItem item;
+        try {
+            item = option.getManager().get(option, cacheKey, loader);
+        } catch (Throwable ex) {
+            inFlights.remove(cacheKey, created);
+            created.completeExceptionally(unwrap(ex));
+            return;
+        }
+
+        inFlights.remove(cacheKey, created);
+        created.complete(item == null ? null : item.getObject().orNull());
+    }
+
+    @SneakyThrows
+    private Object join(Future<?> future) {
+        if (future == null) return null;
+
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            throw unwrap(ex);
+        }
+    }
+
+    private Throwable unwrap(Throwable ex) {
+        if (ex instanceof ExecutionException || ex instanceof CompletionException) {
+            return ex.getCause() != null ? ex.getCause() : ex;
+        }
+        return ex;
+    }
+}
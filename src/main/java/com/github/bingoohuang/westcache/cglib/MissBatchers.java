@@ -0,0 +1,146 @@
+package com.github.bingoohuang.westcache.cglib;
+
+import com.github.bingoohuang.westcache.base.WestCacheException;
+import com.github.bingoohuang.westcache.utils.Guavas;
+import com.github.bingoohuang.westcache.utils.MissBatcher;
+import com.github.bingoohuang.westcache.utils.Specs;
+import com.github.bingoohuang.westcache.utils.StaleFallbacks;
+import com.github.bingoohuang.westcache.utils.WestCacheOption;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Maps;
+import lombok.SneakyThrows;
+import lombok.experimental.UtilityClass;
+import lombok.val;
+import org.apache.commons.lang3.StringUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Batch the cache misses of single argument methods into bulk loads,
+ * by specs like "batch=maxItems:50;maxWaitMillis:5,batchLoader=getUsers".
+ * <p>
+ * The bulk loader is a method of the same bean with a List, Set or
+ * Collection parameter of the keys, which returns a Map from the keys
+ * to the values, or a List of the values in the order of the keys.
+ * <p>
+ * The caller waits for the bulk load at most timeoutMillis of the batch
+ * settings, or loaderTimeoutMillis of the specs, or 30 seconds by default.
+ *
+ * @author bingoohuang [bingoohuang@gmail.com] Created on 2026/10/19.
+ */
+@UtilityClass
+class MissBatchers {
+    public static final String BATCH = "batch";
+    public static final String BATCH_LOADER = "batchLoader";
+    public static final int DEFAULT_MAX_ITEMS = 50;
+    public static final long DEFAULT_MAX_WAIT_MILLIS = 5;
+    public static final long DEFAULT_TIMEOUT_MILLIS = 30000;
+
+    private final Cache<Object, ConcurrentMap<Method, MissBatcher>> batchers
+            = CacheBuilder.newBuilder().weakKeys().build();
+
+    public boolean isBatched(WestCacheOption option) {
+        return option.getSpecs().containsKey(BATCH);
+    }
+
+    @SneakyThrows
+    public Object load(final WestCacheOption option,
+                       final Object obj,
+                       final Method method,
+                       Object[] args) {
+        if (args.length != 1) {
+            throw new WestCacheException("batched method " + method
+                    + " should have only one parameter");
+        }
+
+        val objBatchers = Guavas.cacheGet(batchers, obj,
+                () -> new ConcurrentHashMap<Method, MissBatcher>());
+        val batcher = objBatchers.computeIfAbsent(method,
+                m -> createBatcher(option, obj, m));
+
+        val timeoutMillis = timeoutMillis(option);
+        try {
+            return batcher.submit(args[0]).get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            throw ex.getCause();
+        } catch (TimeoutException ex) {
+            throw new StaleFallbacks.LoaderTimeoutException("batched load of " + method
+                    + " timeout in " + timeoutMillis + " millis");
+        }
+    }
+
+    private long timeoutMillis(WestCacheOption option) {
+        val settings = Specs.parseSubSpecs(option.getSpecs().get(BATCH));
+        if (settings.containsKey("timeoutMillis")) return Long.parseLong(settings.get("timeoutMillis"));
+
+        val loaderTimeoutMillis = StaleFallbacks.loaderTimeoutMillis(option);
+        return loaderTimeoutMillis > 0 ? loaderTimeoutMillis : DEFAULT_TIMEOUT_MILLIS;
+    }
+
+    private MissBatcher createBatcher(WestCacheOption option, Object obj, Method method) {
+        val bulkMethod = findBulkMethod(option, obj, method);
+        val settings = Specs.parseSubSpecs(option.getSpecs().get(BATCH));
+        val maxItems = settings.containsKey("maxItems")
+                ? Integer.parseInt(settings.get("maxItems")) : DEFAULT_MAX_ITEMS;
+        val maxWaitMillis = settings.containsKey("maxWaitMillis")
+                ? Long.parseLong(settings.get("maxWaitMillis")) : DEFAULT_MAX_WAIT_MILLIS;
+
+        return new MissBatcher(maxItems, maxWaitMillis, keys -> bulkLoad(bulkMethod, obj, keys));
+    }
+
+    private Method findBulkMethod(WestCacheOption option, Object obj, Method method) {
+        val loaderName = option.getSpecs().get(BATCH_LOADER);
+        if (StringUtils.isBlank(loaderName)) {
+            throw new WestCacheException("batched method " + method
+                    + " should specify its bulk loader by specs " + BATCH_LOADER);
+        }
+
+        for (Class<?> c = obj.getClass(); c != null; c = c.getSuperclass()) {
+            for (val m : c.getDeclaredMethods()) {
+                if (!m.getName().equals(loaderName)) continue;
+                if (m.getParameterTypes().length != 1) continue;
+                if (!Collection.class.isAssignableFrom(m.getParameterTypes()[0])) continue;
+
+                m.setAccessible(true);
+                return m;
+            }
+        }
+
+        throw new WestCacheException("bulk loader " + loaderName + " of batched method "
+                + method + " is not found");
+    }
+
+    @SneakyThrows @SuppressWarnings("unchecked")
+    private Map<Object, Object> bulkLoad(Method bulkMethod, Object obj, List<Object> keys) {
+        val paramType = bulkMethod.getParameterTypes()[0];
+        val arg = paramType.isAssignableFrom(ArrayList.class) ? keys : new LinkedHashSet<>(keys);
+
+        Object result;
+        try {
+            result = bulkMethod.invoke(obj, arg);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+
+        if (result == null || result instanceof Map) return (Map<Object, Object>) result;
+        if (!(result instanceof List)) {
+            throw new WestCacheException("bulk loader " + bulkMethod
+                    + " should return a Map or List");
+        }
+
+        val values = (List<Object>) result;
+        Map<Object, Object> map = Maps.newHashMap();
+        for (int i = 0, ii = Math.min(keys.size(), values.size()); i < ii; ++i) {
+            map.put(keys.get(i), values.get(i));
+        }
+        return map;
+    }
+}
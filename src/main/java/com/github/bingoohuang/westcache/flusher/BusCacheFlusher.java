@@ -0,0 +1,204 @@
+package com.github.bingoohuang.westcache.flusher;
+
+import com.github.bingoohuang.westcache.base.WestCache;
+import com.github.bingoohuang.westcache.utils.FastJsons;
+import com.github.bingoohuang.westcache.utils.WestCacheOption;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Flusher which pushes the flush events to all nodes by a flush bus.
+ * <p>
+ * Each event is numbered by the global sequence of the bus. Events
+ * published concurrently may arrive out of order, so a gap of the sequence
+ * waits reorderMillis for the missing events. When they are still missing
+ * after the window, or the subscription is lost and resumed, all the
+ * registered keys of the node are flushed as a full resync.
+ *
+ * @author bingoohuang [bingoohuang@gmail.com] Created on 2026/10/19.
+ */
+@Slf4j
+public class BusCacheFlusher extends SimpleCacheFlusher implements FlushBus.Listener {
+    public static final String KEY = "key";
+    public static final String PREFIX = "prefix";
+    public static final long DEFAULT_REORDER_MILLIS = 1000L;
+
+    private static final ScheduledExecutorService gapChecker = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("westcache-bus-gap-%d").setDaemon(true).build());
+
+    private final FlushBus bus;
+    private final String node = UUID.randomUUID().toString();
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+    private final ConcurrentMap<String, WestCacheOption> options = new ConcurrentHashMap<>();
+    private final AtomicLong resyncTimes = new AtomicLong();
+    @Getter @Setter private volatile long reorderMillis = DEFAULT_REORDER_MILLIS;
+    /**
+     * The last sequence without gaps before it.
+     */
+    private long lastSequence = -1;
+    /**
+     * The sequences received after a gap, waiting for the missing ones.
+     */
+    private final NavigableSet<Long> pendingSequences = new TreeSet<>();
+    private long gapSince;
+
+    public BusCacheFlusher(FlushBus bus) {
+        this.bus = bus;
+    }
+
+    @Data @NoArgsConstructor @AllArgsConstructor
+    public static class FlushEvent {
+        private long sequence;
+        private String node;
+        private String type;
+        private String key;
+        private String version;
+        private long timestamp;
+    }
+
+    @Override
+    public boolean register(WestCacheOption option,
+                            String cacheKey,
+                            WestCache cache) {
+        trySubscribe();
+
+        val firstRegistered = super.register(option, cacheKey, cache);
+        if (firstRegistered) options.put(cacheKey, option);
+
+        return firstRegistered;
+    }
+
+    @Override
+    public boolean flush(WestCacheOption option,
+                         String cacheKey,
+                         String version) {
+        publish(KEY, cacheKey, version);
+        return super.flush(option, cacheKey, version);
+    }
+
+    /**
+     * Flush the keys of the prefix on all nodes.
+     *
+     * @param prefix  key prefix like Keys.isPrefix.
+     * @param version version string.
+     * @return number of local keys flushed.
+     */
+    public int flushPrefix(String prefix, String version) {
+        publish(PREFIX, prefix, version);
+        return flushLocalPrefix(prefix, version, 0);
+    }
+
+    /**
+     * Flush all the registered keys of the node.
+     */
+    public void resync() {
+        resyncTimes.incrementAndGet();
+        for (val cacheKey : getRegistry().asMap().keySet()) {
+            val option = options.get(cacheKey);
+            if (option != null) super.flush(option, cacheKey, "");
+        }
+    }
+
+    public long getResyncTimes() {
+        return resyncTimes.get();
+    }
+
+    @Override
+    public void onMessage(String message) {
+        try {
+            FlushEvent event = FastJsons.parse(message, FlushEvent.class);
+            checkSequence(event.getSequence());
+            if (node.equals(event.getNode())) return;
+
+            log.debug("received flush event {}", message);
+            if (PREFIX.equals(event.getType())) {
+                flushLocalPrefix(event.getKey(), event.getVersion(), event.getTimestamp());
+            } else {
+                super.flush(options.get(event.getKey()), event.getKey(),
+                        event.getVersion(), event.getTimestamp());
+            }
+        } catch (Exception ex) {
+            log.warn("apply flush event {} error", message, ex);
+        }
+    }
+
+    @Override
+    public void onResubscribed() {
+        log.warn("flush bus resubscribed, resync all keys");
+        resync();
+    }
+
+    @Override
+    protected void unregistered(String cacheKey) {
+        options.remove(cacheKey);
+    }
+
+    private synchronized void checkSequence(long sequence) {
+        if (lastSequence < 0) lastSequence = sequence;
+        if (sequence <= lastSequence) return;
+
+        pendingSequences.add(sequence);
+        while (!pendingSequences.isEmpty() && pendingSequences.first() == lastSequence + 1) {
+            lastSequence = pendingSequences.pollFirst();
+        }
+
+        if (pendingSequences.isEmpty()) {
+            gapSince = 0;
+        } else if (gapSince == 0) {
+            gapSince = System.currentTimeMillis();
+            log.debug("flush event sequence gap after {}, wait {} millis", lastSequence, reorderMillis);
+            gapChecker.schedule(this::checkGap, reorderMillis, TimeUnit.MILLISECONDS);
+        }
+
+        checkGap();
+    }
+
+    private synchronized void checkGap() {
+        if (gapSince == 0) return;
+        if (System.currentTimeMillis() - gapSince < reorderMillis) return;
+
+        log.warn("flush event sequence gap from {} to {}, resync all keys",
+                lastSequence, pendingSequences.first());
+        lastSequence = pendingSequences.last();
+        pendingSequences.clear();
+        gapSince = 0;
+        resync();
+    }
+
+    private int flushLocalPrefix(String prefix, String version, long changedAt) {
+        val keys = getPrefixKeys(prefix);
+        for (val cacheKey : keys) {
+            super.flush(options.get(cacheKey), cacheKey, version, changedAt);
+        }
+        return keys.size();
+    }
+
+    private void publish(String type, String key, String version) {
+        trySubscribe();
+
+        val event = new FlushEvent(bus.nextSequence(), node, type, key, version,
+                System.currentTimeMillis());
+        bus.publish(FastJsons.json(event));
+    }
+
+    private void trySubscribe() {
+        if (subscribed.compareAndSet(false, true)) bus.subscribe(this);
+    }
+}
@@ -0,0 +1,109 @@
+package com.github.bingoohuang.westcache.flusher;
+
+import com.github.bingoohuang.westcache.base.WestCache;
+import com.github.bingoohuang.westcache.base.WestCacheItem;
+import com.github.bingoohuang.westcache.utils.ThreadFactories;
+import com.github.bingoohuang.westcache.utils.WestCacheOption;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Reload the cache values in the background by the registered loaders.
+ * <p>
+ * At most maxConcurrency reloads run at once and the others are queued.
+ * A key is not reloaded concurrently: the reloads requested while its
+ * reload is running mark it dirty, and it is reloaded once more after
+ * the running one, so the flushes in between are not lost.
+ * The old cache value is served until the new one replaces it.
+ *
+ * @author bingoohuang [bingoohuang@gmail.com] Created on 2026/10/19.
+ */
+@Slf4j
+public class CacheReloader {
+    private final ConcurrentMap<String, Loader> loaders = new ConcurrentHashMap<>();
+    /**
+     * The running reloads, with the dirty flag to reload once more.
+     */
+    private final ConcurrentMap<String, AtomicBoolean> reloading = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+
+    @AllArgsConstructor
+    private static class Loader {
+        final WestCacheOption option;
+        final Callable<WestCacheItem> callable;
+    }
+
+    public CacheReloader(int maxConcurrency) {
+        val threadFactory = ThreadFactories.create("westcache-reloader-");
+        executor = new ThreadPoolExecutor(maxConcurrency, maxConcurrency,
+                60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    public void setMaxConcurrency(int maxConcurrency) {
+        if (maxConcurrency > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(maxConcurrency);
+            executor.setCorePoolSize(maxConcurrency);
+        } else {
+            executor.setCorePoolSize(maxConcurrency);
+            executor.setMaximumPoolSize(maxConcurrency);
+        }
+    }
+
+    public int getMaxConcurrency() {
+        return executor.getMaximumPoolSize();
+    }
+
+    public void registerLoader(WestCacheOption option,
+                               String cacheKey,
+                               Callable<WestCacheItem> loader) {
+        loaders.putIfAbsent(cacheKey, new Loader(option, loader));
+    }
+
+    public boolean hasLoader(String cacheKey) {
+        return loaders.containsKey(cacheKey);
+    }
+
+    /**
+     * Reload the cache value in the background,
+     * with the option registered together with the loader.
+     *
+     * @param cacheKey cache key.
+     * @param cache    cache to put the reloaded value.
+     * @return false if no loader registered for the key.
+     */
+    public boolean reload(final String cacheKey, final WestCache cache) {
+        val loader = loaders.get(cacheKey);
+        if (loader == null) return false;
+
+        val dirty = new AtomicBoolean();
+        val running = reloading.merge(cacheKey, dirty, (old, x) -> {
+            old.set(true);
+            return old;
+        });
+        if (running != dirty) return true;
+
+        executor.execute(() -> {
+            do {
+                reloadOnce(cacheKey, cache, loader);
+            } while (reloading.computeIfPresent(cacheKey,
+                    (k, flag) -> flag.getAndSet(false) ? flag : null) != null);
+        });
+
+        return true;
+    }
+
+    private void reloadOnce(String cacheKey, WestCache cache, Loader loader) {
+        try {
+            val item = loader.callable.call();
+            cache.put(loader.option, cacheKey, item);
+            log.debug("cache reloaded key {}", cacheKey);
+        } catch (Exception ex) {
+            log.warn("cache reload key {} error, keep the old value", cacheKey, ex);
+        }
+    }
+}
@@ -2,16 +2,50 @@ package com.github.bingoohuang.westcache.flusher;
 
 import com.github.bingoohuang.westcache.base.WestCache;
 import com.github.bingoohuang.westcache.utils.WestCacheOption;
+import com.google.common.base.Splitter;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
+import org.apache.commons.lang3.StringUtils;
+import org.n3r.diamond.client.DiamondListener;
 import org.n3r.diamond.client.DiamondManager;
+import org.n3r.diamond.client.DiamondStone;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
+ * Flusher by diamond, with one subscription per diamond group.
+ * <p>
+ * The config of the group and data id "flushkeys" lists the flush entries,
+ * one "key=version" per line. When an entry is added, changed or removed,
+ * the registered keys of the group equal to the entry key, or with the
+ * entry key as prefix like Keys.isPrefix, are flushed. The group is
+ * specified by specs "diamondGroup", default west.cache.flushers.
+ * The flush version is qualified by the entry key, because a cache key
+ * can be covered by its own entry and a prefix entry of the same version.
+ * <p>
+ * The old per-key config, with the cache key itself as data id in group
+ * west.cache.flushers, is only listened for the keys with specs
+ * "diamondPerKey=true", to migrate them into the flush entries one by one.
+ * The per-key listening will be removed once no keys use it.
+ *
  * @author bingoohuang [bingoohuang@gmail.com] Created on 2016/12/25.
  */
 @Slf4j
 public class DiamondCacheFlusher extends SimpleCacheFlusher {
     public static final String GROUP = "west.cache.flushers";
+    public static final String DATA_ID = "flushkeys";
+    public static final String GROUP_SPEC = "diamondGroup";
+    public static final String PER_KEY_SPEC = "diamondPerKey";
+
+    private final ConcurrentMap<String, GroupListener> groups = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, WestCacheOption> options = new ConcurrentHashMap<>();
+    private final Set<String> perKeys = Sets.newConcurrentHashSet();
 
     @Override
     public boolean register(final WestCacheOption option,
@@ -20,11 +54,130 @@ public class DiamondCacheFlusher extends SimpleCacheFlusher {
         val firstRegistered = super.register(option, cacheKey, cache);
         if (!firstRegistered) return false;
 
+        options.put(cacheKey, option);
+        groups.computeIfAbsent(getGroup(option), this::subscribe);
+        if (isPerKey(option) && perKeys.add(cacheKey)) subscribeKey(cacheKey);
+
+        return firstRegistered;
+    }
+
+    /**
+     * Get the number of diamond subscriptions.
+     *
+     * @return number of subscribed groups.
+     */
+    public int getSubscriptions() {
+        return groups.size();
+    }
+
+    /**
+     * Get the number of the old per-key diamond subscriptions.
+     *
+     * @return number of subscribed keys.
+     */
+    public int getKeySubscriptions() {
+        return perKeys.size();
+    }
+
+    private void subscribeKey(String cacheKey) {
+        val listener = new KeyListener(cacheKey);
         val diamondManager = new DiamondManager(GROUP, cacheKey);
-        diamondManager.addDiamondListener(diamondStone -> flush(option, cacheKey, ""));
+        try {
+            listener.content = diamondManager.getDiamond();
+        } catch (Exception ex) {
+            log.warn("read diamond group={}, dataid={} error", GROUP, cacheKey, ex);
+        }
+        diamondManager.addDiamondListener(listener);
 
         log.debug("add diamond listener for group={}, dataid={}", GROUP, cacheKey);
+    }
 
-        return firstRegistered;
+    private class KeyListener implements DiamondListener {
+        final String cacheKey;
+        String content;
+
+        KeyListener(String cacheKey) {
+            this.cacheKey = cacheKey;
+        }
+
+        @Override
+        public synchronized void accept(DiamondStone diamondStone) {
+            val newContent = diamondStone.getContent();
+            if (StringUtils.equals(newContent, content)) return;
+
+            content = newContent;
+            flush(options.get(cacheKey), cacheKey, "");
+        }
+    }
+
+    private GroupListener subscribe(String group) {
+        val listener = new GroupListener(group);
+        val diamondManager = new DiamondManager(group, DATA_ID);
+        try {
+            listener.entries = parseEntries(diamondManager.getDiamond());
+        } catch (Exception ex) {
+            log.warn("read diamond group={}, dataid={} error", group, DATA_ID, ex);
+        }
+        diamondManager.addDiamondListener(listener);
+
+        log.debug("add diamond listener for group={}, dataid={}", group, DATA_ID);
+        return listener;
+    }
+
+    private class GroupListener implements DiamondListener {
+        final String group;
+        Map<String, String> entries = Collections.emptyMap();
+
+        GroupListener(String group) {
+            this.group = group;
+        }
+
+        @Override
+        public synchronized void accept(DiamondStone diamondStone) {
+            val newEntries = parseEntries(diamondStone.getContent());
+            val entryKeys = Sets.union(entries.keySet(), newEntries.keySet());
+            for (val entryKey : entryKeys) {
+                val version = newEntries.get(entryKey);
+                if (version != null && version.equals(entries.get(entryKey))) continue;
+
+                flushEntry(group, entryKey, StringUtils.defaultString(version));
+            }
+            entries = newEntries;
+        }
+    }
+
+    private void flushEntry(String group, String entryKey, String version) {
+        val flushVersion = version.isEmpty() ? "" : entryKey + "=" + version;
+        for (val cacheKey : getPrefixKeys(entryKey)) {
+            val option = options.get(cacheKey);
+            if (!group.equals(getGroup(option))) continue;
+
+            log.debug("flush key {} by diamond entry {}={}", cacheKey, entryKey, version);
+            flush(option, cacheKey, flushVersion);
+        }
+    }
+
+    static Map<String, String> parseEntries(String content) {
+        Map<String, String> entries = Maps.newHashMap();
+        if (StringUtils.isBlank(content)) return entries;
+
+        for (val line : Splitter.on('\n').trimResults().omitEmptyStrings().split(content)) {
+            if (line.startsWith("#")) continue;
+
+            val pos = line.lastIndexOf('=');
+            val key = pos < 0 ? line : line.substring(0, pos).trim();
+            val version = pos < 0 ? "" : line.substring(pos + 1).trim();
+            entries.put(key, version);
+        }
+        return entries;
+    }
+
+    private static boolean isPerKey(WestCacheOption option) {
+        return "true".equals(option.getSpecs().get(PER_KEY_SPEC));
+    }
+
+    private static String getGroup(WestCacheOption option) {
+        val group = option == null ? null : option.getSpecs().get(GROUP_SPEC);
+        return StringUtils.isBlank(group) ? GROUP : group;
     }
 }
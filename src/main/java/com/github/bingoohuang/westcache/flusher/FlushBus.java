@@ -0,0 +1,44 @@
+package com.github.bingoohuang.westcache.flusher;
+
+/**
+ * The transport of the flush events among nodes, used by BusCacheFlusher.
+ *
+ * @author bingoohuang [bingoohuang@gmail.com] Created on 2026/10/19.
+ */
+public interface FlushBus {
+    /**
+     * Get the next global sequence number of flush events.
+     *
+     * @return sequence number.
+     */
+    long nextSequence();
+
+    /**
+     * Publish the message to all the subscribed nodes, including itself.
+     *
+     * @param message message.
+     */
+    void publish(String message);
+
+    /**
+     * Subscribe the messages in the background.
+     *
+     * @param listener listener of the messages and re-subscriptions.
+     */
+    void subscribe(Listener listener);
+
+    interface Listener {
+        /**
+         * Called when a message is received.
+         *
+         * @param message message.
+         */
+        void onMessage(String message);
+
+        /**
+         * Called when subscribed again after the subscription is lost,
+         * the messages in between may be missed.
+         */
+        void onResubscribed();
+    }
+}
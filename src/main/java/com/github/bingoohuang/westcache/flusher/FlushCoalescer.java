@@ -0,0 +1,128 @@
+package com.github.bingoohuang.westcache.flusher;
+
+import com.github.bingoohuang.westcache.utils.WestCacheOption;
+import com.google.common.primitives.Longs;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesce the flush events of the same key within a window.
+ * <p>
+ * The first event of a burst opens the window, and when the window
+ * closes, the pending events are applied as a batch, one per key with
+ * the highest version and the earliest change time. Numeric versions
+ * are compared as numbers, otherwise the latest version wins.
+ *
+ * @author bingoohuang [bingoohuang@gmail.com] Created on 2026/10/19.
+ */
+@Slf4j
+public class FlushCoalescer {
+    public interface Handler {
+        void flush(WestCacheOption option, String cacheKey, String version, long changedAt);
+    }
+
+    @AllArgsConstructor
+    private static class Event {
+        final WestCacheOption option;
+        final String version;
+        final long changedAt;
+    }
+
+    private final long windowMillis;
+    private final Handler handler;
+    private final ConcurrentMap<String, Event> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicLong coalescedTimes = new AtomicLong();
+    private final ScheduledExecutorService executor;
+
+    public FlushCoalescer(long windowMillis, Handler handler) {
+        this.windowMillis = windowMillis;
+        this.handler = handler;
+        this.executor = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("westcache-flush-coalescer-%d")
+                        .setDaemon(true).build());
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    /**
+     * The number of events merged into another pending event of the same key.
+     *
+     * @return coalesced times.
+     */
+    public long getCoalescedTimes() {
+        return coalescedTimes.get();
+    }
+
+    public int getPendingSize() {
+        return pending.size();
+    }
+
+    public void offer(WestCacheOption option, String cacheKey,
+                      String version, long changedAt) {
+        pending.merge(cacheKey, new Event(option, version, changedAt), (old, neo) -> {
+            coalescedTimes.incrementAndGet();
+            val higher = higherVersion(old.version, neo.version);
+            return new Event(neo.option != null ? neo.option : old.option, higher,
+                    Math.min(old.changedAt, neo.changedAt));
+        });
+
+        if (scheduled.compareAndSet(false, true)) {
+            executor.schedule(this::drain, windowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Apply all the pending events now.
+     *
+     * @return number of events applied.
+     */
+    public int drain() {
+        scheduled.set(false);
+
+        int applied = 0;
+        for (val cacheKey : pending.keySet()) {
+            val event = pending.remove(cacheKey);
+            if (event == null) continue;
+
+            try {
+                handler.flush(event.option, cacheKey, event.version, event.changedAt);
+                ++applied;
+            } catch (Exception ex) {
+                log.warn("apply flush of key {} error", cacheKey, ex);
+            }
+        }
+
+        if (applied > 0) log.debug("applied {} coalesced flushes", applied);
+        return applied;
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+        drain();
+    }
+
+    static String higherVersion(String old, String neo) {
+        if (old == null) return neo;
+        if (neo == null) return old;
+
+        // the versions qualified by the same key, like key=version
+        val oldPos = old.lastIndexOf('=');
+        val neoPos = neo.lastIndexOf('=');
+        if (oldPos != neoPos || !old.regionMatches(0, neo, 0, oldPos + 1)) return neo;
+
+        val oldNum = Longs.tryParse(old.substring(oldPos + 1));
+        val neoNum = Longs.tryParse(neo.substring(neoPos + 1));
+        if (oldNum != null && neoNum != null) return oldNum > neoNum ? old : neo;
+
+        return neo;
+    }
+}
@@ -0,0 +1,55 @@
+package com.github.bingoohuang.westcache.flusher;
+
+import com.github.bingoohuang.westcache.utils.Keys;
+import com.github.bingoohuang.westcache.utils.LatencyHistogram;
+import lombok.Value;
+import lombok.experimental.UtilityClass;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Flush propagation latency histograms per flusher type, cache namespace
+ * and stage, all measured from the time of the change in the flush source.
+ * <p>
+ * DETECTED is recorded when the flusher sees the change, which is only
+ * known when the source has the change time, like the UPDATE_TIME of an
+ * incremental table flusher or the publish time of a flush bus event.
+ * INVALIDATED is recorded when the local cache is invalidated or its
+ * reloading is started, and RELOADED when the first value after the flush
+ * is loaded. Without the change time, the latter two are measured from
+ * the detection.
+ *
+ * @author bingoohuang [bingoohuang@gmail.com] Created on 2026/10/19.
+ */
+@UtilityClass
+public class FlushMetrics {
+    public enum Stage {DETECTED, INVALIDATED, RELOADED}
+
+    @Value
+    public static class MetricKey {
+        String flusherType;
+        String namespace;
+        Stage stage;
+    }
+
+    private final ConcurrentMap<MetricKey, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    public void record(String flusherType, String cacheKey, Stage stage, long millis) {
+        getHistogram(new MetricKey(flusherType, Keys.namespace(cacheKey), stage)).record(millis);
+    }
+
+    public LatencyHistogram getHistogram(MetricKey key) {
+        return histograms.computeIfAbsent(key, k -> new LatencyHistogram());
+    }
+
+    public Map<MetricKey, LatencyHistogram> getHistograms() {
+        return Collections.unmodifiableMap(histograms);
+    }
+
+    public void reset() {
+        histograms.clear();
+    }
+}
@@ -0,0 +1,139 @@
+package com.github.bingoohuang.westcache.flusher;
+
+import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import static com.github.bingoohuang.westcache.flusher.TableBasedCacheFlusher.*;
+
+/**
+ * Immutable index of flusher beans to find the bean of a cache key.
+ * <p>
+ * Full keys are found by a hash map, prefix keys by a char trie with
+ * the same boundary rule of Keys.isPrefix, and regex keys by the
+ * precompiled patterns. As the linear scan did, full keys go first,
+ * and the first bean in table order wins among the prefix or regex
+ * matches. The results are memorized per cache key.
+ *
+ * @author bingoohuang [bingoohuang@gmail.com] Created on 2026/10/19.
+ */
+@Slf4j
+class FlusherBeanMatcher {
+    public static final int MEMO_SIZE = 10000;
+
+    private final Map<String, WestCacheFlusherBean> fullBeans = Maps.newHashMap();
+    private final TrieNode prefixRoot = new TrieNode();
+    private final List<RegexBean> regexBeans = Lists.newArrayList();
+    private final Cache<String, Optional<WestCacheFlusherBean>> memo
+            = CacheBuilder.newBuilder().maximumSize(MEMO_SIZE).build();
+
+    private static class TrieNode {
+        final Map<Character, TrieNode> children = Maps.newHashMap();
+        WestCacheFlusherBean bean;
+        int index;
+    }
+
+    @AllArgsConstructor
+    private static class RegexBean {
+        final Pattern pattern;
+        final WestCacheFlusherBean bean;
+    }
+
+    FlusherBeanMatcher(List<WestCacheFlusherBean> beans) {
+        for (int i = 0, ii = beans.size(); i < ii; ++i) {
+            val bean = beans.get(i);
+            if (FULL.equals(bean.getKeyMatch())) {
+                if (!fullBeans.containsKey(bean.getCacheKey())) {
+                    fullBeans.put(bean.getCacheKey(), bean);
+                }
+            } else if (PREFIX.equals(bean.getKeyMatch())) {
+                addPrefix(bean, i);
+            } else if (REGEX.equals(bean.getKeyMatch())) {
+                addRegex(bean);
+            }
+        }
+    }
+
+    private void addPrefix(WestCacheFlusherBean bean, int index) {
+        TrieNode node = prefixRoot;
+        for (val ch : bean.getCacheKey().toCharArray()) {
+            TrieNode child = node.children.get(ch);
+            if (child == null) {
+                child = new TrieNode();
+                node.children.put(ch, child);
+            }
+            node = child;
+        }
+
+        if (node.bean == null) {
+            node.bean = bean;
+            node.index = index;
+        }
+    }
+
+    private void addRegex(WestCacheFlusherBean bean) {
+        try {
+            regexBeans.add(new RegexBean(Pattern.compile(bean.getCacheKey()), bean));
+        } catch (PatternSyntaxException e) {
+            log.error("regex syntax error : {}", bean.getCacheKey());
+        }
+    }
+
+    WestCacheFlusherBean find(String cacheKey) {
+        val memorized = memo.getIfPresent(cacheKey);
+        if (memorized != null) return memorized.orNull();
+
+        val bean = match(cacheKey);
+        memo.put(cacheKey, Optional.fromNullable(bean));
+        return bean;
+    }
+
+    private WestCacheFlusherBean match(String cacheKey) {
+        val fullBean = fullBeans.get(cacheKey);
+        if (fullBean != null) return fullBean;
+
+        val prefixBean = matchPrefix(cacheKey);
+        if (prefixBean != null) return prefixBean;
+
+        for (val regexBean : regexBeans) {
+            if (regexBean.pattern.matcher(cacheKey).matches()) return regexBean.bean;
+        }
+
+        return null;
+    }
+
+    private WestCacheFlusherBean matchPrefix(String cacheKey) {
+        WestCacheFlusherBean found = null;
+        int foundIndex = Integer.MAX_VALUE;
+
+        TrieNode node = prefixRoot;
+        for (int i = 0, ii = cacheKey.length(); node != null; ++i) {
+            if (node.bean != null && node.index < foundIndex && isBoundary(cacheKey, i)) {
+                found = node.bean;
+                foundIndex = node.index;
+            }
+            if (i == ii) break;
+
+            node = node.children.get(cacheKey.charAt(i));
+        }
+
+        return found;
+    }
+
+    private boolean isBoundary(String cacheKey, int pos) {
+        if (pos == cacheKey.length()) return true;
+
+        char nextChar = cacheKey.charAt(pos);
+        return nextChar == '.' || nextChar == '_';
+    }
+}
@@ -1,10 +1,12 @@
 package com.github.bingoohuang.westcache.flusher;
 
 import com.github.bingoohuang.westcache.base.WestCache;
+import com.github.bingoohuang.westcache.base.WestCacheItem;
 import com.github.bingoohuang.westcache.spring.SpringAppContext;
 import com.github.bingoohuang.westcache.utils.*;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Sets;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.apache.commons.lang3.StringUtils;
@@ -13,13 +15,27 @@ import org.quartz.Job;
 import org.quartz.JobBuilder;
 import org.quartz.JobExecutionContext;
 
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
+ * Flusher to invalidate the cache keys on schedule, like specs "scheduled=At 03:00".
+ * <p>
+ * One quartz job is scheduled per distinct schedule expression, and it only
+ * flushes the keys of the expression. With specs "flushMode=reload", the
+ * value is reloaded ahead in the background at the scheduled time instead of
+ * invalidated, with at most reloadConcurrency reloads at once.
+ *
  * @author bingoohuang [bingoohuang@gmail.com] Created on 2017/1/16.
  */
 @Slf4j
 public class QuartzCacheFlusher extends ByPassCacheFlusher {
     Cache<String, Pair<WestCacheOption, WestCache>>
             registry = CacheBuilder.newBuilder().build();
+    final ConcurrentMap<String, Set<String>> scheduledKeys = new ConcurrentHashMap<>();
+    final CacheReloader reloader = new CacheReloader(2);
     Quartz quartz = new Quartz();
 
     @Override
@@ -32,24 +48,54 @@ public class QuartzCacheFlusher extends ByPassCacheFlusher {
         val pair = registry.getIfPresent(cacheKey);
         if (pair != null) return false;
 
-        Guavas.cacheGet(registry, cacheKey, () -> {
-            val job = JobBuilder.newJob(RunnableCacheJob.class).build();
-            job.getJobDataMap().put(RunnableCacheJob.KEY, (Runnable) () -> {
-                for (val entry : registry.asMap().entrySet()) {
-                    val cac = entry.getValue().getValue();
-                    val opt = entry.getValue().getLeft();
-                    cac.invalidate(opt, entry.getKey(), null);
+        registry.put(cacheKey, Pair.of(option, cache));
+        getScheduledKeys(scheduled).add(cacheKey);
+        return true;
+    }
 
-                    log.debug("cache invalidate key {}", entry.getKey());
-                }
-            });
+    @Override
+    public void registerLoader(WestCacheOption option,
+                               String cacheKey,
+                               Callable<WestCacheItem> loader) {
+        if (SimpleCacheFlusher.isReloadMode(option)) {
+            reloader.registerLoader(option, cacheKey, loader);
+        }
+    }
 
-            val trigger = new ScheduledParser(scheduled).parse();
-            quartz.scheduleJob(job, trigger);
-            return Pair.of(option, cache);
-        });
+    public void setReloadConcurrency(int reloadConcurrency) {
+        reloader.setMaxConcurrency(reloadConcurrency);
+    }
 
-        return true;
+    private synchronized Set<String> getScheduledKeys(String scheduled) {
+        val keys = scheduledKeys.get(scheduled);
+        if (keys != null) return keys;
+
+        val newKeys = Sets.<String>newConcurrentHashSet();
+        scheduledKeys.put(scheduled, newKeys);
+
+        val job = JobBuilder.newJob(RunnableCacheJob.class).build();
+        job.getJobDataMap().put(RunnableCacheJob.KEY, (Runnable) () -> flushKeys(newKeys));
+
+        quartz.scheduleJob(job, new ScheduledParser(scheduled).parse());
+        log.debug("scheduled job for {}", scheduled);
+
+        return newKeys;
+    }
+
+    private void flushKeys(Set<String> keys) {
+        for (val cacheKey : keys) {
+            val pair = registry.getIfPresent(cacheKey);
+            if (pair == null) continue;
+
+            val opt = pair.getLeft();
+            val cac = pair.getRight();
+            if (reloader.reload(cacheKey, cac)) {
+                log.debug("cache reload key {}", cacheKey);
+            } else {
+                cac.invalidate(opt, cacheKey, null);
+                log.debug("cache invalidate key {}", cacheKey);
+            }
+        }
     }
 
     private String getScheduled(WestCacheOption option) {
@@ -75,7 +121,9 @@ public class QuartzCacheFlusher extends ByPassCacheFlusher {
         }
     }
 
-    public void stopQuartz() {
+    public synchronized void stopQuartz() {
         quartz.stop();
+        scheduledKeys.clear();
+        registry.invalidateAll();
     }
 }
@@ -0,0 +1,97 @@
+package com.github.bingoohuang.westcache.flusher;
+
+import com.github.bingoohuang.utils.lang.Threadx;
+import com.github.bingoohuang.westcache.utils.Redis;
+import lombok.Cleanup;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPubSub;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Flush bus on a redis channel, with the sequence of the channel by redis INCR,
+ * so the publishers of other channels leave no gaps in it.
+ * <p>
+ * A dedicated connection of the pool is held by the subscribing thread.
+ *
+ * @author bingoohuang [bingoohuang@gmail.com] Created on 2026/10/19.
+ */
+@Slf4j
+public class RedisFlushBus implements FlushBus {
+    public static final String CHANNEL = Redis.PREFIX + "flush";
+    public static final String SEQUENCE_PREFIX = Redis.PREFIX + "flush:seq:";
+
+    private final JedisPool pool;
+    private final String channel;
+    @Getter private final String sequenceKey;
+    private volatile JedisPubSub pubSub;
+    private volatile boolean closed;
+
+    public RedisFlushBus(JedisPool pool) {
+        this(pool, CHANNEL);
+    }
+
+    public RedisFlushBus(JedisPool pool, String channel) {
+        this.pool = pool;
+        this.channel = channel;
+        this.sequenceKey = SEQUENCE_PREFIX + channel;
+    }
+
+    @Override
+    public long nextSequence() {
+        @Cleanup val jedis = pool.getResource();
+        return jedis.incr(sequenceKey);
+    }
+
+    @Override
+    public void publish(String message) {
+        @Cleanup val jedis = pool.getResource();
+        jedis.publish(channel, message);
+    }
+
+    @Override
+    public void subscribe(final Listener listener) {
+        val subscribed = new CountDownLatch(1);
+        val thread = new Thread(() -> subscribeLoop(listener, subscribed), "westcache-flush-bus");
+        thread.setDaemon(true);
+        thread.start();
+
+        try {
+            subscribed.await(3, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public void close() {
+        closed = true;
+        val current = pubSub;
+        if (current != null) current.unsubscribe();
+    }
+
+    private void subscribeLoop(final Listener listener, final CountDownLatch subscribed) {
+        while (!closed) {
+            try {
+                @Cleanup val jedis = pool.getResource();
+                pubSub = new JedisPubSub() {
+                    @Override public void onMessage(String channel, String message) {
+                        listener.onMessage(message);
+                    }
+
+                    @Override public void onSubscribe(String channel, int subscribedChannels) {
+                        if (subscribed.getCount() == 0) listener.onResubscribed();
+                        subscribed.countDown();
+                    }
+                };
+                jedis.subscribe(pubSub, channel);
+            } catch (Exception ex) {
+                log.warn("subscribe flush bus channel {} error", channel, ex);
+                Threadx.sleepMillis(1000L);
+            }
+        }
+    }
+}
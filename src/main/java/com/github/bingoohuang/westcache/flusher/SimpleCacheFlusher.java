@@ -1,20 +1,67 @@
 package com.github.bingoohuang.westcache.flusher;
 
 import com.github.bingoohuang.westcache.base.WestCache;
+import com.github.bingoohuang.westcache.base.WestCacheItem;
+import com.github.bingoohuang.westcache.flusher.FlushMetrics.Stage;
+import com.github.bingoohuang.westcache.utils.Keys;
 import com.github.bingoohuang.westcache.utils.WestCacheOption;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.Lists;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
 
 /**
+ * Flusher to invalidate the registered cache keys on flush.
+ * <p>
+ * With specs "flushMode=reload", the cache value is reloaded in the
+ * background on flush instead of invalidated, and the old value is
+ * served until the new one is ready. At most reloadConcurrency reloads
+ * run at once.
+ * <p>
+ * With flushCoalesceMillis set, the flushes of a key within the window are
+ * coalesced into one with the highest version and applied in a batch,
+ * so a burst of flushes reloads a cache only once.
+ * <p>
+ * The last flushed version of each key is stamped on the values loaded
+ * after it, and a flush of the version a value already holds is skipped.
+ * <p>
+ * The flush latencies are recorded to FlushMetrics.
+ *
  * @author bingoohuang [bingoohuang@gmail.com] Created on 2016/12/22.
  */
 @Slf4j
 public class SimpleCacheFlusher extends ByPassCacheFlusher {
+    public static final String FLUSH_MODE = "flushMode";
+    public static final String RELOAD = "reload";
+
+    /**
+     * The sorted registered keys, to find the keys of a prefix by range.
+     */
+    private final NavigableSet<String> sortedKeys = new ConcurrentSkipListSet<>();
     @Getter private Cache<String, WestCache>
-            registry = CacheBuilder.newBuilder().build();
+            registry = CacheBuilder.newBuilder()
+            .removalListener(this::unindex).build();
+    private final CacheReloader reloader = new CacheReloader(2);
+    private volatile FlushCoalescer coalescer;
+    private final ConcurrentMap<String, String> versions = new ConcurrentHashMap<>();
+    /**
+     * The change time of the flushes waiting for the first reload.
+     */
+    private final Cache<String, Long> pendingLoads = CacheBuilder.newBuilder()
+            .expireAfterWrite(10, TimeUnit.MINUTES).build();
 
     @Override
     public boolean register(WestCacheOption option,
@@ -24,19 +71,174 @@ public class SimpleCacheFlusher extends ByPassCacheFlusher {
         log.debug("register flush key {} for cache {}", cacheKey, westCache);
 
         val registered = westCache == null;
-        if (registered) registry.put(cacheKey, cache);
+        if (registered) {
+            registry.put(cacheKey, cache);
+            sortedKeys.add(cacheKey);
+        }
         return registered;
     }
 
+    /**
+     * Remove the unregistered key from the sorted keys and the versions.
+     * The key is indexed again if it is re-registered before the removal
+     * from the index.
+     *
+     * @param notification removal of the registry.
+     */
+    private void unindex(RemovalNotification<String, WestCache> notification) {
+        if (notification.getCause() == RemovalCause.REPLACED) return;
+
+        val cacheKey = notification.getKey();
+        sortedKeys.remove(cacheKey);
+        if (registry.getIfPresent(cacheKey) != null) {
+            sortedKeys.add(cacheKey);
+            return;
+        }
+
+        versions.remove(cacheKey);
+        pendingLoads.invalidate(cacheKey);
+        unregistered(cacheKey);
+    }
+
+    /**
+     * Called when the cache key is removed from the registry.
+     *
+     * @param cacheKey cache key.
+     */
+    protected void unregistered(String cacheKey) {
+    }
+
+    @Override
+    public void registerLoader(WestCacheOption option,
+                               String cacheKey,
+                               Callable<WestCacheItem> loader) {
+        if (isReloadMode(option)) reloader.registerLoader(option, cacheKey, loader);
+    }
+
+    @Override
+    public void loaded(WestCacheOption option, String cacheKey, WestCacheItem item) {
+        val changedAt = pendingLoads.asMap().remove(cacheKey);
+        if (changedAt != null) record(cacheKey, Stage.RELOADED, changedAt);
+    }
+
+    @Override
+    public String getVersion(WestCacheOption option, String cacheKey) {
+        return versions.get(cacheKey);
+    }
+
+    public void setReloadConcurrency(int reloadConcurrency) {
+        reloader.setMaxConcurrency(reloadConcurrency);
+    }
+
+    /**
+     * Set the window to coalesce the flushes of the same key.
+     *
+     * @param flushCoalesceMillis window in millis, 0 to flush immediately.
+     */
+    public synchronized void setFlushCoalesceMillis(long flushCoalesceMillis) {
+        val old = coalescer;
+        coalescer = flushCoalesceMillis > 0
+                ? new FlushCoalescer(flushCoalesceMillis, this::flushNow) : null;
+        if (old != null) old.shutdown();
+    }
+
+    public long getFlushCoalesceMillis() {
+        val current = coalescer;
+        return current == null ? 0 : current.getWindowMillis();
+    }
+
+    public FlushCoalescer getCoalescer() {
+        return coalescer;
+    }
+
+    public static boolean isReloadMode(WestCacheOption option) {
+        return RELOAD.equals(option.getSpecs().get(FLUSH_MODE));
+    }
+
+    /**
+     * Find the registered keys with the prefix by the rule of Keys.isPrefix,
+     * in time proportional to the keys starting with the prefix.
+     *
+     * @param prefix key prefix.
+     * @return registered keys with the prefix.
+     */
+    public List<String> getPrefixKeys(String prefix) {
+        List<String> keys = Lists.newArrayList();
+        val tailKeys = sortedKeys.tailSet(prefix, true);
+        for (val key : tailKeys) {
+            if (!key.startsWith(prefix)) break;
+            if (!Keys.isPrefix(key, prefix)) continue;
+
+            if (registry.getIfPresent(key) != null) keys.add(key);
+        }
+
+        return keys;
+    }
+
     @Override public boolean flush(WestCacheOption option,
                                    String cacheKey,
                                    String version) {
+        return flush(option, cacheKey, version, 0);
+    }
+
+    /**
+     * Flush cache with the change time in the flush source.
+     *
+     * @param option    WestCacheOption.
+     * @param cacheKey  Cache key.
+     * @param version   Version String.
+     * @param changedAt change time in millis, 0 if unknown.
+     * @return flushed or not.
+     */
+    public boolean flush(WestCacheOption option,
+                         String cacheKey,
+                         String version,
+                         long changedAt) {
         val westCache = registry.getIfPresent(cacheKey);
         log.debug("flush key {} for cache {}", cacheKey, westCache);
 
         val flushSent = westCache != null;
-        if (flushSent) westCache.invalidate(option, cacheKey, version);
+        if (!flushSent) return false;
+
+        if (changedAt > 0) record(cacheKey, Stage.DETECTED, changedAt);
+        val since = changedAt > 0 ? changedAt : System.currentTimeMillis();
+
+        val current = coalescer;
+        if (current != null) current.offer(option, cacheKey, version, since);
+        else flushNow(option, cacheKey, version, since);
+
+        return true;
+    }
+
+    private void record(String cacheKey, Stage stage, long since) {
+        val millis = System.currentTimeMillis() - since;
+        FlushMetrics.record(getClass().getSimpleName(), cacheKey, stage, millis);
+    }
+
+    private void flushNow(WestCacheOption option,
+                          String cacheKey,
+                          String version,
+                          long since) {
+        val westCache = registry.getIfPresent(cacheKey);
+        if (westCache == null) return;
+
+        if (StringUtils.isNotEmpty(version)) versions.put(cacheKey, version);
+        else versions.remove(cacheKey);
+
+        if (reloader.hasLoader(cacheKey)) {
+            val item = westCache.getIfPresent(option, cacheKey);
+            if (item != null && item.isVersion(version)) {
+                log.debug("skip reload key {} of the same version {}", cacheKey, version);
+                return;
+            }
+        }
 
-        return flushSent;
+        pendingLoads.asMap().merge(cacheKey, since, Math::min);
+        if (reloader.reload(cacheKey, westCache)) {
+            log.debug("reload key {} in background", cacheKey);
+        } else {
+            westCache.invalidate(option, cacheKey, version);
+        }
+        record(cacheKey, Stage.INVALIDATED, since);
     }
 }
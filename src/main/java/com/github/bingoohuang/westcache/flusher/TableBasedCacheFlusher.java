@@ -5,11 +5,16 @@ import com.github.bingoohuang.westcache.utils.*;
 import com.google.common.base.Optional;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 
+import java.sql.Timestamp;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.*;
@@ -24,13 +29,33 @@ public abstract class TableBasedCacheFlusher extends SimpleCacheFlusher {
     public static final String FULL = "full";
 
     volatile List<WestCacheFlusherBean> tableRows;
+    volatile FlusherBeanMatcher beanMatcher;
     volatile ScheduledFuture<?> scheduledFuture;
 
     @Getter volatile long lastExecuted = -1;
+    /**
+     * Poll only the rows changed since the last seen update time when true.
+     */
+    @Getter @Setter volatile boolean incremental;
+    /**
+     * The changed rows are polled since the watermark minus the overlap,
+     * to catch the rows committed late with an earlier update time.
+     */
+    @Getter @Setter volatile long watermarkOverlapMillis = 5000L;
+    /**
+     * Do a full poll every fullPollTimes incremental polls,
+     * to catch the rows deleted physically.
+     */
+    @Getter @Setter volatile int fullPollTimes = 10;
+
+    private Map<String, WestCacheFlusherRow> rowIndex;
+    private long watermark;
+    private int incrementalPolls;
     Cache<String, Optional<Map<String, String>>> prefixDirectCache
             = CacheBuilder.newBuilder().build();
     private ScheduledExecutorService executorService
-            = Executors.newSingleThreadScheduledExecutor();
+            = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("westcache-table-flusher-%d").setDaemon(true).build());
 
     @Override
     public boolean isKeyEnabled(WestCacheOption option, String cacheKey) {
@@ -81,8 +106,42 @@ public abstract class TableBasedCacheFlusher extends SimpleCacheFlusher {
         return Optional.fromNullable(value);
     }
 
+    /**
+     * Get the version of the row matching the cache key, qualified by
+     * the row key like rowKey=version, because a cache key can be covered
+     * by its own row and a prefix row of the same version.
+     */
+    @Override
+    public String getVersion(WestCacheOption option, String cacheKey) {
+        val bean = beanMatcher == null ? null : findBean(cacheKey);
+        return bean == null ? super.getVersion(option, cacheKey) : qualifiedVersion(bean);
+    }
+
+    static String qualifiedVersion(WestCacheFlusherBean bean) {
+        return bean.getCacheKey() + "=" + bean.getValueVersion();
+    }
+
     protected abstract List<WestCacheFlusherBean> queryAllBeans();
 
+    /**
+     * Query all the enabled rows with the change tracking columns.
+     *
+     * @return rows, or null if incremental polling is not supported.
+     */
+    protected List<WestCacheFlusherRow> queryAllRows() {
+        return null;
+    }
+
+    /**
+     * Query the rows, including the disabled ones, updated since the time.
+     *
+     * @param since update time inclusive.
+     * @return rows, or null if incremental polling is not supported.
+     */
+    protected List<WestCacheFlusherRow> queryChangedRows(Timestamp since) {
+        return null;
+    }
+
     protected abstract Object readDirectValue(WestCacheOption option,
                                               WestCacheFlusherBean bean,
                                               DirectValueType type);
@@ -104,45 +163,12 @@ public abstract class TableBasedCacheFlusher extends SimpleCacheFlusher {
     }
 
     protected WestCacheFlusherBean findBean(String cacheKey) {
-        WestCacheFlusherBean bean;
-
-        bean = findBeanByFullKey(cacheKey);
-        if (bean != null) return bean;
-
-        bean = findBeanByPrefix(cacheKey);
-        if (bean != null) return bean;
-
-        bean = findBeanByRegex(cacheKey);
-        if (bean != null) return bean;
-
-        return null;
+        return beanMatcher.find(cacheKey);
     }
 
-    private WestCacheFlusherBean findBeanByRegex(String cacheKey) {
-        for (val bean : tableRows) {
-            if (REGEX.equals(bean.getKeyMatch())
-                    && Keys.matchRegex(cacheKey, bean.getCacheKey())) return bean;
-        }
-
-        return null;
-    }
-
-    private WestCacheFlusherBean findBeanByPrefix(String cacheKey) {
-        for (val bean : tableRows) {
-            if (PREFIX.equals(bean.getKeyMatch())
-                    && Keys.isPrefix(cacheKey, bean.getCacheKey())) return bean;
-        }
-
-        return null;
-    }
-
-    private WestCacheFlusherBean findBeanByFullKey(String cacheKey) {
-        for (val bean : tableRows) {
-            if (FULL.equals(bean.getKeyMatch())
-                    && bean.getCacheKey().equals(cacheKey)) return bean;
-        }
-
-        return null;
+    private void setTableRows(List<WestCacheFlusherBean> beans) {
+        beanMatcher = new FlusherBeanMatcher(beans);
+        tableRows = beans;
     }
 
     protected void startupRotateChecker(final WestCacheOption option,
@@ -171,21 +197,55 @@ public abstract class TableBasedCacheFlusher extends SimpleCacheFlusher {
 
     protected int checkBeans(WestCacheOption option, String cacheKey) {
         log.debug("start rotating check");
-        val beans = queryAllBeans();
+        val beans = queryBeans();
 
         if (lastExecuted == -1) {
-            tableRows = beans;
+            setTableRows(beans);
             saveSnapshot(option, cacheKey);
         } else if (beans.equals(tableRows)) {
             log.debug("no changes detected");
         } else {
             diff(tableRows, beans, option);
-            tableRows = beans;
+            setTableRows(beans);
         }
         lastExecuted = System.currentTimeMillis();
         return 1;
     }
 
+    private List<WestCacheFlusherBean> queryBeans() {
+        if (!incremental) return queryAllBeans();
+
+        val fullPoll = rowIndex == null || lastExecuted == -1
+                || ++incrementalPolls >= fullPollTimes;
+        val rows = fullPoll ? queryAllRows()
+                : queryChangedRows(new Timestamp(watermark - watermarkOverlapMillis));
+        if (rows == null) return queryAllBeans();
+
+        if (fullPoll) {
+            rowIndex = Maps.newHashMap();
+            incrementalPolls = 0;
+        } else if (rows.isEmpty()) {
+            return tableRows;
+        }
+
+        for (val row : rows) {
+            if (row.getCacheState() == 1) rowIndex.put(row.getCacheKey(), row);
+            else rowIndex.remove(row.getCacheKey());
+
+            val updateTime = row.getUpdateTime();
+            if (updateTime != null) watermark = Math.max(watermark, updateTime.getTime());
+        }
+        log.debug("polled {} rows, full poll:{}, watermark:{}", rows.size(), fullPoll, watermark);
+
+        List<WestCacheFlusherRow> sortedRows = Lists.newArrayList(rowIndex.values());
+        sortedRows.sort(Comparator.comparingInt(WestCacheFlusherRow::getMatchPri).reversed()
+                .thenComparing(WestCacheFlusherRow::getCacheKey));
+
+        List<WestCacheFlusherBean> beans = Lists.newArrayListWithCapacity(sortedRows.size());
+        for (val row : sortedRows) beans.add(row.toBean());
+        return beans.equals(tableRows) ? tableRows : beans;
+    }
+
     private void saveSnapshot(WestCacheOption option, String cacheKey) {
         val snapshot = option.getSnapshot();
         if (snapshot == null) return;
@@ -198,7 +258,8 @@ public abstract class TableBasedCacheFlusher extends SimpleCacheFlusher {
     protected void diff(List<WestCacheFlusherBean> table,
                         List<WestCacheFlusherBean> beans,
                         WestCacheOption option) {
-        val flushKeys = getDiffFlushKeys(table, beans);
+        Map<String, String> newVersions = Maps.newHashMap();
+        val flushKeys = getDiffFlushKeys(table, beans, newVersions);
         if (flushKeys.isEmpty()) return;
 
         Map<String, String> prefixKeys = Maps.newHashMap();
@@ -207,7 +268,8 @@ public abstract class TableBasedCacheFlusher extends SimpleCacheFlusher {
         log.debug("flush full keys:{}, prefix keys:{}", fullKeys, prefixKeys);
 
         for (val entry : fullKeys.entrySet()) {
-            flush(option, entry.getKey(), entry.getValue());
+            val beanKey = entry.getValue();
+            flush(option, entry.getKey(), newVersions.get(beanKey), getChangedAt(beanKey));
         }
         for (val entry : prefixKeys.entrySet()) {
             flushPrefix(entry.getKey());
@@ -216,12 +278,20 @@ public abstract class TableBasedCacheFlusher extends SimpleCacheFlusher {
 
     private Map<String, WestCacheFlusherBean> getDiffFlushKeys(
             List<WestCacheFlusherBean> table,
-            List<WestCacheFlusherBean> beans) {
+            List<WestCacheFlusherBean> beans,
+            Map<String, String> newVersions) {
+        Map<String, WestCacheFlusherBean> beanIndex = Maps.newHashMap();
+        for (val bean : beans) {
+            if (!beanIndex.containsKey(bean.getCacheKey())) beanIndex.put(bean.getCacheKey(), bean);
+        }
+
         Map<String, WestCacheFlusherBean> flushKeys = Maps.newHashMap();
         for (val bean : table) {
-            val found = find(bean, beans);
+            val found = beanIndex.get(bean.getCacheKey());
             if (isBeanChanged(found, bean)) {
                 flushKeys.put(bean.getCacheKey(), bean);
+                // flush with the new version, or no version for the removed one
+                newVersions.put(bean.getCacheKey(), found == null ? "" : qualifiedVersion(found));
             }
         }
         return flushKeys;
@@ -232,35 +302,44 @@ public abstract class TableBasedCacheFlusher extends SimpleCacheFlusher {
         return found == null || found.getValueVersion() != old.getValueVersion();
     }
 
+    /**
+     * Get the change time of the row from UPDATE_TIME of incremental polling.
+     *
+     * @param beanKey cache key of the row.
+     * @return change time in millis, or 0 if unknown.
+     */
+    private long getChangedAt(String beanKey) {
+        val row = rowIndex == null ? null : rowIndex.get(beanKey);
+        val updateTime = row == null ? null : row.getUpdateTime();
+        return updateTime == null ? 0 : updateTime.getTime();
+    }
+
+    /*
+     * The fullKeys is filled with the keys to flush, to the cache key of their beans.
+     */
     private void getFlushKeys(Map<String, WestCacheFlusherBean> flushKeys,
                               Map<String, String> prefixKeys,
                               Map<String, String> fullKeys) {
-        for (val key : getRegistry().asMap().keySet()) {
-            if (flushKeys.containsKey(key)) {
-                int valueVersion = flushKeys.get(key).getValueVersion();
-                fullKeys.put(key, Integer.toString(valueVersion));
-                continue;
-            }
+        for (val bean : flushKeys.values()) {
+            if (!PREFIX.equals(bean.getKeyMatch())) continue;
 
-            for (val bean : flushKeys.values()) {
-                if (!PREFIX.equals(bean.getKeyMatch())
-                        || !Keys.isPrefix(key, bean.getCacheKey())) continue;
+            for (val key : getPrefixKeys(bean.getCacheKey())) {
+                if (flushKeys.containsKey(key)) continue;
 
-                fullKeys.put(key, "" + bean.getValueVersion());
-                prefixKeys.put(bean.getCacheKey(), "" + bean.getValueVersion());
+                fullKeys.put(key, bean.getCacheKey());
+                prefixKeys.put(bean.getCacheKey(), bean.getCacheKey());
             }
         }
+
+        for (val bean : flushKeys.values()) {
+            val key = bean.getCacheKey();
+            if (getRegistry().getIfPresent(key) == null) continue;
+
+            fullKeys.put(key, key);
+        }
     }
 
     protected void flushPrefix(String prefixKey) {
         prefixDirectCache.invalidate(prefixKey);
     }
-
-    protected WestCacheFlusherBean find(WestCacheFlusherBean old,
-                                        List<WestCacheFlusherBean> beans) {
-        for (val newOne : beans) {
-            if (old.getCacheKey().equals(newOne.getCacheKey())) return newOne;
-        }
-        return null;
-    }
 }
\ No newline at end of file
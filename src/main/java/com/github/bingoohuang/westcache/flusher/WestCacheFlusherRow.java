@@ -0,0 +1,29 @@
+package com.github.bingoohuang.westcache.flusher;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+
+
+/**
+ * Flusher table row with the change tracking columns for incremental polling.
+ *
+ * @author bingoohuang [bingoohuang@gmail.com] Created on 2026/10/19.
+ */
+@Data @AllArgsConstructor @NoArgsConstructor
+public class WestCacheFlusherRow {
+    private String cacheKey;
+    private String keyMatch;
+    private int valueVersion;
+    private String valueType;
+    private String specs;
+    private int matchPri;
+    private int cacheState;
+    private Timestamp updateTime;
+
+    public WestCacheFlusherBean toBean() {
+        return new WestCacheFlusherBean(cacheKey, keyMatch, valueVersion, valueType, specs);
+    }
+}
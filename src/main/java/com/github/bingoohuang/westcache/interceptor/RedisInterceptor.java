@@ -4,6 +4,7 @@ import com.github.bingoohuang.utils.lang.Executes;
 import com.github.bingoohuang.utils.lang.QuietCloseable;
 import com.github.bingoohuang.westcache.base.WestCacheInterceptor;
 import com.github.bingoohuang.westcache.base.WestCacheItem;
+import com.github.bingoohuang.westcache.utils.CircuitBreaker;
 import com.github.bingoohuang.westcache.utils.Redis;
 import com.github.bingoohuang.westcache.utils.WestCacheOption;
 import lombok.Cleanup;
@@ -24,33 +25,38 @@ public class RedisInterceptor implements WestCacheInterceptor {
                                    Callable<WestCacheItem> callable) {
         val redisKey = Redis.PREFIX + cacheKey;
         val redis = Redis.getRedis(option);
-        val item0 = Redis.getWestCacheItem(option, redis, redisKey);
+        val breaker = Redis.getBreaker(option, redis);
+        val item0 = breaker.call(() -> Redis.getWestCacheItem(option, redis, redisKey), () -> null);
         if (item0 != null) return item0;
+        // the redis is down, just load
+        if (breaker.isOpen()) return Executes.execute(callable);
 
         if (!"true".equals(option.getSpecs().get("redisLockFirst"))) {
-            return executeAndPut(option, callable, redisKey, redis);
+            return executeAndPut(option, callable, redisKey, redis, breaker);
         }
 
         val lockKey = Redis.PREFIX + "lock:" + cacheKey;
-        val locked = Redis.waitRedisLock(redis, lockKey);
+        val locked = breaker.call(() -> Redis.waitRedisLock(redis, lockKey), () -> false);
         log.debug("got redis lock {}={}", lockKey, locked);
 
         @Cleanup QuietCloseable i = () -> {
-            redis.del(lockKey);
+            breaker.call(() -> redis.del(lockKey), () -> null);
             log.debug("del redis lock {}", lockKey);
         }; // free lock automatically
 
-        val item1 = Redis.getWestCacheItem(option, redis, redisKey);
+        // the double check needs the latest value, not a lagging replica's
+        val item1 = breaker.call(() -> Redis.getWestCacheItem(option, redis, redisKey, false), () -> null);
         if (item1 != null) return item1;
 
-        return executeAndPut(option, callable, redisKey, redis);
+        return executeAndPut(option, callable, redisKey, redis, breaker);
     }
 
     private WestCacheItem executeAndPut(WestCacheOption option,
                                         Callable<WestCacheItem> callable,
-                                        String redisKey, JedisCommands redis) {
+                                        String redisKey, JedisCommands redis,
+                                        CircuitBreaker breaker) {
         val item = Executes.execute(callable);
-        Redis.expirePut(option, redis, redisKey, item);
+        breaker.call(() -> Redis.expirePut(option, redis, redisKey, item), () -> null);
 
         return item;
     }
@@ -2,9 +2,15 @@ package com.github.bingoohuang.westcache.manager;
 
 import com.github.bingoohuang.utils.lang.Executes;
 import com.github.bingoohuang.westcache.base.WestCache;
+import com.github.bingoohuang.westcache.base.WestCacheException;
 import com.github.bingoohuang.westcache.base.WestCacheItem;
 import com.github.bingoohuang.westcache.base.WestCacheManager;
+import com.github.bingoohuang.westcache.utils.AdaptiveTtls;
 import com.github.bingoohuang.westcache.utils.Envs;
+import com.github.bingoohuang.westcache.utils.LoaderBulkhead;
+import com.github.bingoohuang.westcache.utils.NegativeCaches;
+import com.github.bingoohuang.westcache.utils.StaleFallbacks;
+import com.github.bingoohuang.westcache.utils.ThreadFactories;
 import com.github.bingoohuang.westcache.utils.WestCacheOption;
 import com.google.common.base.Optional;
 import lombok.Getter;
@@ -14,7 +20,7 @@ import lombok.val;
 
 import java.lang.reflect.Method;
 import java.util.concurrent.Callable;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -23,6 +29,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
  */
 @Slf4j
 public abstract class BaseCacheManager implements WestCacheManager {
+    private static final ExecutorService snapshotRaces = ThreadFactories.newTaskExecutor("westcache-snapshot-");
     private final long startupTime = System.currentTimeMillis();
 
     @Getter private WestCache westCache;
@@ -51,31 +58,99 @@ public abstract class BaseCacheManager implements WestCacheManager {
             return Executes.execute(callable);
         }
 
-        flusher.register(option, cacheKey, westCache);
-
         val shot = new AtomicBoolean(true);
         Callable<WestCacheItem> flushCallable = () -> {
+            // get the version before loading, to never stamp a newer version on an older value
+            val version = flusher.getVersion(option, cacheKey);
             val raw = flusher.getDirectValue(option, cacheKey);
-            if (raw.isPresent()) return new WestCacheItem(raw, option);
+            if (raw.isPresent()) {
+                val rawItem = new WestCacheItem(raw, option);
+                rawItem.setVersion(version);
+                flusher.loaded(option, cacheKey, rawItem);
+                return rawItem;
+            }
 
             shot.set(false);
-            val interceptor = option.getInterceptor();
-            return interceptor.intercept(option, cacheKey, callable);
+            val bulkhead = LoaderBulkhead.of(option, cacheKey);
+            if (bulkhead != null && !bulkhead.tryAcquire()) {
+                throw new StaleFallbacks.StaleServedException(cacheKey, saturated(option, cacheKey));
+            }
+
+            WestCacheItem item;
+            try {
+                item = StaleFallbacks.load(option, cacheKey,
+                        () -> option.getInterceptor().intercept(option, cacheKey, callable));
+            } catch (Exception ex) {
+                val staleItem = StaleFallbacks.isStaleOnError(option)
+                        ? getStale(option, cacheKey, StaleFallbacks.reasonOf(ex)) : null;
+                if (staleItem == null) throw ex;
+
+                throw new StaleFallbacks.StaleServedException(cacheKey, staleItem);
+            } finally {
+                if (bulkhead != null) bulkhead.release();
+            }
+            item = AdaptiveTtls.adapt(option, cacheKey, item);
+            if (item != null) item.setVersion(version);
+            NegativeCaches.track(option, cacheKey, westCache, item);
+            flusher.loaded(option, cacheKey, item);
+            return item;
         };
 
+        if (flusher.register(option, cacheKey, westCache)) {
+            flusher.registerLoader(option, cacheKey, flushCallable);
+        }
+
         Callable<WestCacheItem> wrapCallable = () -> option.getSnapshot() == null
                 ? Executes.execute(flushCallable)
                 : trySnapshot(option, cacheKey, flushCallable);
 
         checkStartupTimeValidate(option, cacheKey);
 
-        val item = westCache.get(option, cacheKey, wrapCallable);
+        val item = getOrStale(option, cacheKey, wrapCallable);
         log.debug("cache key {} shot result {} ", cacheKey,
                 shot.get() ? "bingo" : "misfired");
 
         return item;
     }
 
+    /*
+     * The stale value is returned without caching,
+     * so it is served only once and the next get tries to load again.
+     */
+    @SneakyThrows
+    private WestCacheItem getOrStale(WestCacheOption option, String cacheKey,
+                                     Callable<WestCacheItem> callable) {
+        try {
+            return westCache.get(option, cacheKey, callable);
+        } catch (Exception ex) {
+            val staleServed = StaleFallbacks.findStaleServed(ex);
+            if (staleServed == null) throw ex;
+
+            return staleServed.getItem();
+        }
+    }
+
+    private WestCacheItem saturated(WestCacheOption option, String cacheKey) {
+        val item = LoaderBulkhead.isStaleOnSaturated(option)
+                ? getStale(option, cacheKey, StaleFallbacks.Reason.SATURATED) : null;
+        if (item != null) return item;
+
+        throw new WestCacheException("loader bulkhead of cache key "
+                + cacheKey + " is saturated");
+    }
+
+    private WestCacheItem getStale(WestCacheOption option, String cacheKey,
+                                   StaleFallbacks.Reason reason) {
+        WestCacheItem item = StaleFallbacks.getRetained(option, cacheKey);
+        if (item == null) item = westCache.getIfPresent(option, cacheKey);
+
+        val snapshot = option.getSnapshot();
+        if (item == null && snapshot != null) item = snapshot.readSnapshot(option, cacheKey);
+
+        if (item != null) StaleFallbacks.served(cacheKey, reason);
+        return item;
+    }
+
     private void checkStartupTimeValidate(WestCacheOption option, String cacheKey) {
         if (!"true".equals(option.getSpecs().get("restartInvalidate"))) return;
 
@@ -83,7 +158,7 @@ public abstract class BaseCacheManager implements WestCacheManager {
         val startupTimeKey = "startupTime:" + cacheKey;
         val timeItem = westCache.getIfPresent(cloneOption, startupTimeKey);
 
-        val validate = timeItem.isPresent() && (Long) timeItem.orNull() >= startupTime;
+        val validate = timeItem != null && timeItem.isPresent() && (Long) timeItem.orNull() >= startupTime;
         if (!validate) {
             westCache.invalidate(option, cacheKey, "");
             westCache.put(option, startupTimeKey, new WestCacheItem(Optional.of(startupTime), option));
@@ -93,8 +168,7 @@ public abstract class BaseCacheManager implements WestCacheManager {
     private WestCacheItem trySnapshot(final WestCacheOption option,
                                       final String cacheKey,
                                       final Callable<WestCacheItem> callable) {
-        val executorService = Executors.newSingleThreadScheduledExecutor();
-        Future<WestCacheItem> future = executorService.submit(() -> {
+        Future<WestCacheItem> future = snapshotRaces.submit(() -> {
             val item = Executes.execute(callable);
             westCache.put(option, cacheKey, item);
             val snapshot = option.getSnapshot();
@@ -75,6 +75,9 @@ public class ExpiringMapCacheManager extends BaseCacheManager {
         public void invalidate(WestCacheOption option,
                                String cacheKey,
                                String version) {
+            val item = cache.get(cacheKey);
+            if (item != null && item.isVersion(version)) return;
+
             cache.remove(cacheKey);
         }
 
@@ -6,6 +6,7 @@ import com.github.bingoohuang.westcache.utils.Guavas;
 import com.github.bingoohuang.westcache.utils.WestCacheOption;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import lombok.val;
 
 import java.util.concurrent.Callable;
 
@@ -44,6 +45,9 @@ public class GuavaCacheManager extends BaseCacheManager {
         @Override
         public void invalidate(WestCacheOption option,
                                String cacheKey, String version) {
+            val item = cache.getIfPresent(cacheKey);
+            if (item != null && item.isVersion(version)) return;
+
             cache.invalidate(cacheKey);
         }
     }
@@ -4,18 +4,25 @@ import com.github.bingoohuang.utils.lang.QuietCloseable;
 import com.github.bingoohuang.westcache.base.WestCache;
 import com.github.bingoohuang.westcache.base.WestCacheItem;
 import com.github.bingoohuang.westcache.interceptor.RedisInterceptor;
-import com.github.bingoohuang.westcache.utils.FastJsons;
+import com.github.bingoohuang.westcache.utils.CircuitBreaker;
+import com.github.bingoohuang.westcache.utils.Guavas;
 import com.github.bingoohuang.westcache.utils.Redis;
+import com.github.bingoohuang.westcache.utils.ThreadFactories;
 import com.github.bingoohuang.westcache.utils.WestCacheOption;
-import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import lombok.AllArgsConstructor;
 import lombok.Cleanup;
+import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.apache.commons.lang3.StringUtils;
 import redis.clients.jedis.JedisCommands;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * @author bingoohuang [bingoohuang@gmail.com] Created on 2016/12/28.
@@ -30,9 +37,35 @@ public class RedisCacheManager extends BaseCacheManager {
         super(new RedisWestCache());
     }
 
-    @AllArgsConstructor
+    /**
+     * The cache in redis, which falls back to a bounded local cache when
+     * the circuit of the redis is open, and the invalidations during the
+     * fallback are replayed to redis in the background when the circuit is
+     * closed again. Until then, a key with a queued invalidation is replayed
+     * by its own read first, so its stale value in redis is never read.
+     */
     public static class RedisWestCache implements WestCache {
-        String prefix;
+        public static final long FALLBACK_MAX_SIZE = 10000;
+        public static final long FALLBACK_EXPIRE_SECONDS = 60;
+        private static final ExecutorService replayer = ThreadFactories.newTaskExecutor("westcache-redis-replay-");
+
+        @AllArgsConstructor
+        private static class Invalidation {
+            final WestCacheOption option;
+            final String version;
+        }
+
+        final String prefix;
+        private final Cache<String, WestCacheItem> local = CacheBuilder.newBuilder()
+                .maximumSize(FALLBACK_MAX_SIZE)
+                .expireAfterWrite(FALLBACK_EXPIRE_SECONDS, TimeUnit.SECONDS).build();
+        private final Cache<String, Invalidation> invalidations = CacheBuilder.newBuilder()
+                .maximumSize(FALLBACK_MAX_SIZE).build();
+        private final AtomicBoolean fallen = new AtomicBoolean();
+
+        public RedisWestCache(String prefix) {
+            this.prefix = prefix;
+        }
 
         public RedisWestCache() {
             this(Redis.PREFIX);
@@ -42,20 +75,25 @@ public class RedisCacheManager extends BaseCacheManager {
         public WestCacheItem get(
                 WestCacheOption option, String cacheKey,
                 Callable<WestCacheItem> callable) {
-            return new RedisInterceptor().intercept(option, cacheKey, callable);
+            val breaker = breaker(option);
+            if (!breaker.isOpen()) {
+                replayPending(breaker, cacheKey);
+                return new RedisInterceptor().intercept(option, cacheKey, callable);
+            }
+
+            fallen.set(true);
+            return Guavas.cacheGet(local, cacheKey, callable);
         }
 
         @Override
         public WestCacheItem getIfPresent(WestCacheOption option, String cacheKey) {
-            val json = Redis.getRedis(option).get(prefix + cacheKey);
-            if (StringUtils.isNotEmpty(json)) {
-                val method = option.getMethod();
-                val object = FastJsons.parse(json, method, true);
-                val optional = Optional.fromNullable(object);
-                return new WestCacheItem(optional, option);
-            }
-
-            return new WestCacheItem(Optional.absent(), option);
+            // null for a missing key, and an absent item for a cached absent result
+            val redis = Redis.getRedis(option);
+            val breaker = breaker(option);
+            if (!breaker.isOpen()) replayPending(breaker, cacheKey);
+            return breaker.call(
+                    () -> Redis.getWestCacheItem(option, redis, prefix + cacheKey),
+                    () -> fallback(() -> local.getIfPresent(cacheKey)));
         }
 
         @Override
@@ -63,17 +101,72 @@ public class RedisCacheManager extends BaseCacheManager {
                         WestCacheItem cacheValue) {
             val redis = Redis.getRedis(option);
             val key = prefix + cacheKey;
-            Redis.expirePut(option, redis, key, cacheValue);
+            breaker(option).call(() -> Redis.expirePut(option, redis, key, cacheValue),
+                    () -> fallback(() -> {
+                        local.put(cacheKey, cacheValue);
+                        return null;
+                    }));
         }
 
         @Override
         public void invalidate(
                 WestCacheOption option, String cacheKey, String version) {
+            local.invalidate(cacheKey);
+            breaker(option).call(() -> {
+                invalidateRedis(option, cacheKey, version);
+                return null;
+            }, () -> fallback(() -> {
+                invalidations.put(cacheKey, new Invalidation(option, version));
+                return null;
+            }));
+        }
+
+        private CircuitBreaker breaker(WestCacheOption option) {
+            val breaker = Redis.getBreaker(option, Redis.getRedis(option));
+            if (breaker.isClosed() && fallen.compareAndSet(true, false)) {
+                replayer.execute(() -> replay(breaker));
+            }
+            return breaker;
+        }
+
+        @SneakyThrows
+        private <T> T fallback(Callable<T> callable) {
+            fallen.set(true);
+            return callable.call();
+        }
+
+        private void replay(CircuitBreaker breaker) {
+            local.invalidateAll();
+
+            for (val entry : invalidations.asMap().entrySet()) {
+                replay(breaker, entry.getKey(), entry.getValue());
+            }
+            log.info("replayed invalidations to redis, {} left", invalidations.size());
+        }
+
+        private void replayPending(CircuitBreaker breaker, String cacheKey) {
+            if (invalidations.size() == 0) return;
+
+            val invalidation = invalidations.getIfPresent(cacheKey);
+            if (invalidation != null) replay(breaker, cacheKey, invalidation);
+        }
+
+        private void replay(CircuitBreaker breaker, String cacheKey, Invalidation invalidation) {
+            breaker.call(() -> {
+                invalidateRedis(invalidation.option, cacheKey, invalidation.version);
+                invalidations.asMap().remove(cacheKey, invalidation);
+                return null;
+            }, () -> fallback(() -> null));
+        }
+
+        private void invalidateRedis(
+                WestCacheOption option, String cacheKey, String version) {
             val redis = Redis.getRedis(option);
 
             val redisKey = prefix + cacheKey;
             if (StringUtils.isEmpty(version)) {
                 redis.del(redisKey);
+                Redis.written(redis, redisKey);
                 return;
             }
 
@@ -98,6 +191,7 @@ public class RedisCacheManager extends BaseCacheManager {
             if (version.equals(versionRedis)) return;
 
             redis.del(redisKey);
+            Redis.written(redis, redisKey);
             redis.set(versionKey, version);
         }
     }
@@ -0,0 +1,385 @@
+package com.github.bingoohuang.westcache.manager;
+
+import com.github.bingoohuang.westcache.base.WestCache;
+import com.github.bingoohuang.westcache.base.WestCacheItem;
+import com.github.bingoohuang.westcache.utils.WestCacheOption;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.Getter;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static com.github.bingoohuang.utils.time.Durations.parse;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+/**
+ * The expiring cache manager on hierarchical timing wheels, without
+ * the global lock of a sorted expiration structure.
+ * <p>
+ * The expireAfterWrite of the item and the expireAfterAccess of the specs
+ * are supported per entry, like the expiring manager.
+ *
+ * @author bingoohuang [bingoohuang@gmail.com] Created on 2026/10/19.
+ */
+public class TimingWheelCacheManager extends BaseCacheManager {
+    public TimingWheelCacheManager() {
+        super(new TimingWheelCache());
+    }
+
+    /**
+     * The entries are kept in a concurrent map, and the ones with expiration
+     * are scheduled to the timing wheels of their stripes, each of LEVELS
+     * levels of SLOTS slots, where a slot of a level spans a whole round of
+     * the lower level. The wheels are advanced by one ticker every tick, and
+     * an entry is expired when the slot of its level 0 is reached, or cascaded
+     * down from the higher levels, so scheduling is amortised O(1).
+     * <p>
+     * Reading an expired entry removes it lazily. An access only renews the
+     * deadline of its entry without rescheduling, and the entry is rescheduled
+     * when its slot is reached before the new deadline. Each slot is an
+     * intrusive doubly linked list, so a replaced or removed entry is unlinked
+     * from its slot at once instead of being left there until the slot is reached.
+     * <p>
+     * The ticker is started by the first entry with expiration, so a cache
+     * without expiring entries never ticks.
+     */
+    @Slf4j
+    public static class TimingWheelCache implements WestCache {
+        public static final long DEFAULT_TICK_MILLIS = 100;
+        static final int STRIPES = 16;
+        static final int BITS = 6;
+        static final int SLOTS = 1 << BITS;
+        static final int MASK = SLOTS - 1;
+        static final int LEVELS = 4;
+
+        private static final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("westcache-timing-wheel-%d").setDaemon(true).build());
+
+        private final ConcurrentMap<String, Entry> map = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, FutureTask<WestCacheItem>> loadings = new ConcurrentHashMap<>();
+        private final Wheel[] wheels = new Wheel[STRIPES];
+        @Getter private final long tickMillis;
+        private volatile ScheduledFuture<?> ticking;
+        private volatile boolean stopped;
+
+        public TimingWheelCache() {
+            this(DEFAULT_TICK_MILLIS);
+        }
+
+        public TimingWheelCache(long tickMillis) {
+            this.tickMillis = tickMillis;
+            val tick = System.currentTimeMillis() / tickMillis;
+            for (int i = 0; i < STRIPES; ++i) wheels[i] = new Wheel(tick);
+        }
+
+        /**
+         * Start the ticker if it is not started yet.
+         *
+         * @return false when the cache is stopped.
+         */
+        private boolean startTicking() {
+            if (ticking != null) return !stopped;
+
+            synchronized (wheels) {
+                if (ticking != null || stopped) return !stopped;
+
+                // nothing is scheduled before the ticker starts, so the wheels just skip the idle ticks
+                val tick = System.currentTimeMillis() / tickMillis;
+                for (val wheel : wheels) wheel.reset(tick);
+                ticking = ticker.scheduleAtFixedRate(this::advance, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+                return true;
+            }
+        }
+
+        private static class Entry {
+            final String key;
+            final WestCacheItem item;
+            final long writeDeadline; // 0 for no expireAfterWrite
+            final long accessMillis; // 0 for no expireAfterAccess
+            volatile long deadline; // 0 for never expired
+            Slot slot; // the links are guarded by the wheel of the stripe
+            Entry prev;
+            Entry next;
+
+            Entry(String key, WestCacheItem item, long writeDeadline, long accessMillis) {
+                this.key = key;
+                this.item = item;
+                this.writeDeadline = writeDeadline;
+                this.accessMillis = accessMillis;
+                this.deadline = deadline(System.currentTimeMillis());
+            }
+
+            long deadline(long now) {
+                if (accessMillis == 0) return writeDeadline;
+
+                val accessDeadline = now + accessMillis;
+                return writeDeadline == 0 ? accessDeadline : Math.min(writeDeadline, accessDeadline);
+            }
+
+            boolean isExpired(long now) {
+                val d = deadline;
+                return d > 0 && now >= d;
+            }
+        }
+
+        private static class Slot {
+            Entry head;
+            int size;
+
+            void add(Entry entry) {
+                entry.slot = this;
+                entry.prev = null;
+                entry.next = head;
+                if (head != null) head.prev = entry;
+                head = entry;
+                ++size;
+            }
+
+            void remove(Entry entry) {
+                if (entry.prev != null) entry.prev.next = entry.next;
+                else head = entry.next;
+                if (entry.next != null) entry.next.prev = entry.prev;
+                unlinked(entry);
+                --size;
+            }
+
+            /**
+             * Detach all the entries from the slot.
+             *
+             * @return the entries.
+             */
+            List<Entry> drain() {
+                val entries = new ArrayList<Entry>(size);
+                for (Entry entry = head; entry != null; ) {
+                    val next = entry.next;
+                    unlinked(entry);
+                    entries.add(entry);
+                    entry = next;
+                }
+                head = null;
+                size = 0;
+                return entries;
+            }
+
+            private static void unlinked(Entry entry) {
+                entry.slot = null;
+                entry.prev = null;
+                entry.next = null;
+            }
+        }
+
+        private class Wheel {
+            final Slot[] slots = new Slot[LEVELS * SLOTS];
+            long currentTick;
+
+            Wheel(long currentTick) {
+                this.currentTick = currentTick;
+                for (int i = 0; i < slots.length; ++i) slots[i] = new Slot();
+            }
+
+            synchronized void reset(long tick) {
+                currentTick = tick;
+            }
+
+            /**
+             * Unlink the replaced entry, and schedule the new one if it expires.
+             *
+             * @param replaced the replaced or removed entry, or null.
+             * @param entry    the new entry, or null.
+             */
+            synchronized void replace(Entry replaced, Entry entry) {
+                if (replaced != null && replaced.slot != null) replaced.slot.remove(replaced);
+                if (entry != null) schedule(entry, currentTick + 1);
+            }
+
+            synchronized int scheduledSize() {
+                int size = 0;
+                for (val slot : slots) size += slot.size;
+                return size;
+            }
+
+            private void schedule(Entry entry, long earliestTick) {
+                val tick = Math.max(entry.deadline / tickMillis, earliestTick);
+                val delta = tick - currentTick;
+                for (int level = 0; level < LEVELS; ++level) {
+                    if (delta < 1L << (BITS * (level + 1))) {
+                        slot(level, tick).add(entry);
+                        return;
+                    }
+                }
+
+                // beyond the top level, park in the farthest slot and reschedule there
+                slot(LEVELS - 1, currentTick + (1L << (BITS * LEVELS)) - 1).add(entry);
+            }
+
+            private Slot slot(int level, long tick) {
+                return slots[level * SLOTS + (int) ((tick >>> (BITS * level)) & MASK)];
+            }
+
+            synchronized void advance(long targetTick, long now) {
+                while (currentTick < targetTick) {
+                    val tick = ++currentTick;
+                    for (int level = LEVELS - 1; level > 0; --level) {
+                        if ((tick & ((1L << (BITS * level)) - 1)) == 0) cascade(level, tick);
+                    }
+
+                    val slot = slot(0, tick);
+                    if (slot.head == null) continue;
+
+                    for (val entry : slot.drain()) expire(entry, tick, now);
+                }
+            }
+
+            private void cascade(int level, long tick) {
+                val slot = slot(level, tick);
+                if (slot.head == null) return;
+
+                for (val entry : slot.drain()) {
+                    if (map.get(entry.key) == entry) schedule(entry, tick);
+                }
+            }
+
+            private void expire(Entry entry, long tick, long now) {
+                if (map.get(entry.key) != entry) return;
+
+                if (entry.isExpired(now)) {
+                    map.remove(entry.key, entry);
+                } else { // renewed by access, or the ticker is behind
+                    schedule(entry, tick + 1);
+                }
+            }
+        }
+
+        private void advance() {
+            try {
+                val now = System.currentTimeMillis();
+                val targetTick = now / tickMillis;
+                for (val wheel : wheels) wheel.advance(targetTick, now);
+            } catch (Exception ex) {
+                log.warn("advance timing wheels error", ex);
+            }
+        }
+
+        @Override @SneakyThrows
+        public WestCacheItem get(WestCacheOption option,
+                                 String cacheKey,
+                                 Callable<WestCacheItem> callable) {
+            val item = getIfPresent(option, cacheKey);
+            if (item != null) return item;
+
+            val task = new FutureTask<WestCacheItem>(callable);
+            val loading = loadings.putIfAbsent(cacheKey, task);
+            if (loading != null) return getLoaded(loading);
+
+            try {
+                val present = getIfPresent(option, cacheKey);
+                if (present != null) return present;
+
+                task.run();
+                val loaded = getLoaded(task);
+                if (loaded != null) put(option, cacheKey, loaded);
+                return loaded;
+            } finally {
+                loadings.remove(cacheKey, task);
+            }
+        }
+
+        @SneakyThrows
+        private WestCacheItem getLoaded(FutureTask<WestCacheItem> task) {
+            try {
+                return task.get();
+            } catch (ExecutionException ex) {
+                throw ex.getCause();
+            }
+        }
+
+        @Override
+        public WestCacheItem getIfPresent(WestCacheOption option,
+                                          String cacheKey) {
+            val entry = map.get(cacheKey);
+            if (entry == null) return null;
+
+            val now = System.currentTimeMillis();
+            if (entry.isExpired(now)) {
+                if (map.remove(cacheKey, entry)) wheels[stripe(cacheKey)].replace(entry, null);
+                return null;
+            }
+
+            if (entry.accessMillis > 0) entry.deadline = entry.deadline(now);
+            return entry.item;
+        }
+
+        /**
+         * expireAfterAccess=[duration] of specs, and expireAfterWrite of the item.
+         */
+        @Override
+        public void put(WestCacheOption option,
+                        String cacheKey,
+                        WestCacheItem cacheItem) {
+            val expireWrite = cacheItem.getDurationSeconds();
+            val writeDeadline = expireWrite > 0 ? System.currentTimeMillis() + expireWrite * 1000 : 0;
+            val expireAccess = option == null ? null : option.getSpecs().get("expireAfterAccess");
+            val accessMillis = isNotBlank(expireAccess)
+                    ? parse("expireAfterAccess", expireAccess) * 1000 : 0;
+
+            val entry = new Entry(cacheKey, cacheItem, writeDeadline, accessMillis);
+            val replaced = map.put(cacheKey, entry);
+            val scheduled = entry.deadline > 0 && startTicking() ? entry : null;
+            if (replaced != null || scheduled != null) wheels[stripe(cacheKey)].replace(replaced, scheduled);
+        }
+
+        @Override
+        public void invalidate(WestCacheOption option,
+                               String cacheKey,
+                               String version) {
+            val entry = map.get(cacheKey);
+            if (entry != null && entry.item.isVersion(version)) return;
+
+            val removed = map.remove(cacheKey);
+            if (removed != null) wheels[stripe(cacheKey)].replace(removed, null);
+        }
+
+        /**
+         * The number of entries, including the expired ones not yet removed.
+         *
+         * @return size.
+         */
+        public int size() {
+            return map.size();
+        }
+
+        /**
+         * The number of entries scheduled in the wheels.
+         *
+         * @return size.
+         */
+        public int scheduledSize() {
+            int size = 0;
+            for (val wheel : wheels) size += wheel.scheduledSize();
+            return size;
+        }
+
+        public boolean isTicking() {
+            return ticking != null && !stopped;
+        }
+
+        /**
+         * Stop advancing the wheels, after which the entries are only expired lazily.
+         */
+        public void stop() {
+            synchronized (wheels) {
+                stopped = true;
+                if (ticking != null) ticking.cancel(false);
+            }
+        }
+
+        private int stripe(String cacheKey) {
+            val h = cacheKey.hashCode();
+            return (h ^ (h >>> 16)) & (STRIPES - 1);
+        }
+    }
+}
@@ -6,12 +6,14 @@ import com.github.bingoohuang.utils.lang.Executes;
 import com.github.bingoohuang.westcache.flusher.DirectValueType;
 import com.github.bingoohuang.westcache.flusher.TableBasedCacheFlusher;
 import com.github.bingoohuang.westcache.flusher.WestCacheFlusherBean;
+import com.github.bingoohuang.westcache.flusher.WestCacheFlusherRow;
 import com.github.bingoohuang.westcache.utils.*;
 import lombok.Getter;
 import lombok.val;
 import org.apache.commons.lang3.StringUtils;
 import org.n3r.eql.eqler.EqlerFactory;
 
+import java.sql.Timestamp;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,6 +31,46 @@ public class TableCacheFlusher extends TableBasedCacheFlusher {
         return dao.selectAllBeans();
     }
 
+    @Override
+    protected List<WestCacheFlusherRow> queryAllRows() {
+        return dao.selectAllRows();
+    }
+
+    @Override
+    protected List<WestCacheFlusherRow> queryChangedRows(Timestamp since) {
+        return dao.selectChangedRows(since);
+    }
+
+    /**
+     * Disable the bean, with UPDATE_TIME set for the incremental polling.
+     *
+     * @param bean flusher bean.
+     */
+    public void disableBean(WestCacheFlusherBean bean) {
+        dao.disableBean(bean);
+    }
+
+    /**
+     * Update the direct value and upgrade the version,
+     * with UPDATE_TIME set for the incremental polling.
+     *
+     * @param cacheKey    cache key.
+     * @param directValue direct value json.
+     * @return updated rows.
+     */
+    public int updateDirectValue(String cacheKey, String directValue) {
+        return dao.updateDirectValue(cacheKey, directValue);
+    }
+
+    /**
+     * Upgrade the version, with UPDATE_TIME set for the incremental polling.
+     *
+     * @param cacheKey cache key.
+     */
+    public void upgradeVersion(String cacheKey) {
+        dao.upgradeVersion(cacheKey);
+    }
+
     @Override
     protected Object readDirectValue(WestCacheOption option,
                                      WestCacheFlusherBean bean,
@@ -1,9 +1,11 @@
 package com.github.bingoohuang.westcache.outofbox;
 
 import com.github.bingoohuang.westcache.flusher.WestCacheFlusherBean;
+import com.github.bingoohuang.westcache.flusher.WestCacheFlusherRow;
 import org.n3r.eql.eqler.annotations.EqlerConfig;
 import org.n3r.eql.eqler.annotations.Sql;
 
+import java.sql.Timestamp;
 import java.util.List;
 
 /**
@@ -11,6 +13,10 @@ import java.util.List;
  */
 @EqlerConfig
 public interface TableCacheFlusherDao {
+    /*
+     * The H2 of the tests has no ON UPDATE clause, see README for the MySQL DDL
+     * which sets UPDATE_TIME on any update. The updates below set it themselves.
+     */
     @Sql("DROP TABLE IF EXISTS WESTCACHE_FLUSHER;" +
             "CREATE TABLE WESTCACHE_FLUSHER (" +
             "  CACHE_KEY     VARCHAR(1000)              NOT NULL PRIMARY KEY," +
@@ -21,7 +27,8 @@ public interface TableCacheFlusherDao {
             "  VALUE_TYPE    VARCHAR(20) DEFAULT 'none' NOT NULL COMMENT 'value access type, direct: use direct json in DIRECT_VALUE field'," +
             "  SPECS         VARCHAR(1000)              NULL     COMMENT 'specs for extension'," +
             "  DIRECT_VALUE  TEXT, " +
-            "  CACHE_REMARK VARCHAR(200) NULL" +
+            "  CACHE_REMARK VARCHAR(200) NULL," +
+            "  UPDATE_TIME  TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL COMMENT 'last update time for incremental polling'" +
             ")ENGINE=InnoDB DEFAULT CHARSET=utf8")
     void setup();
 
@@ -31,6 +38,20 @@ public interface TableCacheFlusherDao {
             "ORDER BY MATCH_PRI DESC")
     List<WestCacheFlusherBean> selectAllBeans();
 
+    @Sql("SELECT CACHE_KEY, KEY_MATCH, VALUE_VERSION, VALUE_TYPE, SPECS, " +
+            "MATCH_PRI, CACHE_STATE, UPDATE_TIME " +
+            "FROM WESTCACHE_FLUSHER " +
+            "WHERE CACHE_STATE = 1 " +
+            "ORDER BY MATCH_PRI DESC")
+    List<WestCacheFlusherRow> selectAllRows();
+
+    @Sql("SELECT CACHE_KEY, KEY_MATCH, VALUE_VERSION, VALUE_TYPE, SPECS, " +
+            "MATCH_PRI, CACHE_STATE, UPDATE_TIME " +
+            "FROM WESTCACHE_FLUSHER " +
+            "WHERE UPDATE_TIME >= ## " +
+            "ORDER BY MATCH_PRI DESC")
+    List<WestCacheFlusherRow> selectChangedRows(Timestamp since);
+
     @Sql("SELECT DIRECT_VALUE FROM WESTCACHE_FLUSHER " +
             "WHERE CACHE_KEY = ## AND CACHE_STATE = 1")
     String getDirectValue(String key);
@@ -40,17 +61,18 @@ public interface TableCacheFlusherDao {
     void addBean(WestCacheFlusherBean bean);
 
     @Sql("UPDATE WESTCACHE_FLUSHER " +
-            "SET CACHE_STATE = 0 " +
+            "SET CACHE_STATE = 0, UPDATE_TIME = CURRENT_TIMESTAMP " +
             "WHERE CACHE_KEY = #?#" +
             "AND CACHE_STATE <> 0")
     void disableBean(WestCacheFlusherBean bean);
 
     @Sql("UPDATE WESTCACHE_FLUSHER SET VALUE_VERSION = VALUE_VERSION + 1," +
-            "DIRECT_VALUE = #2# " +
+            "DIRECT_VALUE = #2#, UPDATE_TIME = CURRENT_TIMESTAMP " +
             "WHERE CACHE_KEY = #1#")
     int updateDirectValue(String cacheKey, String directValue);
 
-    @Sql("UPDATE WESTCACHE_FLUSHER SET VALUE_VERSION = VALUE_VERSION + 1 " +
+    @Sql("UPDATE WESTCACHE_FLUSHER SET VALUE_VERSION = VALUE_VERSION + 1, " +
+            "UPDATE_TIME = CURRENT_TIMESTAMP " +
             "WHERE CACHE_KEY = ##")
     void upgradeVersion(String key);
 }
@@ -0,0 +1,340 @@
+package com.github.bingoohuang.westcache.snapshot;
+
+import com.github.bingoohuang.westcache.base.WestCacheItem;
+import com.github.bingoohuang.westcache.base.WestCacheSnapshot;
+import com.github.bingoohuang.westcache.utils.FastJsons;
+import com.github.bingoohuang.westcache.utils.WestCacheOption;
+import com.google.common.base.Charsets;
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.Striped;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.apache.commons.lang3.StringUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Delta snapshot for Map or List cached values.
+ * <p>
+ * The full value is saved as the base image by the under snapshot, and
+ * the following saves only write the changed entries against the base
+ * image to cacheKey.delta (a List delta is the changed range between the
+ * common head and tail). The delta is replayed on read, and a new base
+ * image is written when the delta grows beyond deltaRebaseRatio
+ * (default 0.3) of the base size.
+ * <p>
+ * The entries are keyed by the json of the map keys, and the hash index of
+ * the base image is saved to cacheKey.basehashes next to cacheKey.baseid,
+ * so the first save after a restart writes a delta instead of a new base.
+ * Other value types are saved by the under snapshot directly.
+ *
+ * @author bingoohuang [bingoohuang@gmail.com] Created on 2026/10/19.
+ */
+@Slf4j
+public class DeltaCacheSnapshot implements WestCacheSnapshot {
+    public static final String DELTA = ".delta";
+    public static final String BASE_ID = ".baseid";
+    public static final String BASE_HASHES = ".basehashes";
+
+    private static final Method DELTA_METHOD = getMethod("deltaImage");
+    private static final Method BASE_ID_METHOD = getMethod("baseId");
+    private static final Method BASE_HASHES_METHOD = getMethod("baseHashes");
+
+    private final WestCacheSnapshot snapshot;
+    private final ConcurrentMap<String, DeltaBase> bases = new ConcurrentHashMap<>();
+    private final Striped<Lock> locks = Striped.lock(64);
+
+    public DeltaCacheSnapshot(WestCacheSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    public interface MethodProvider {
+        DeltaImage deltaImage();
+
+        String baseId();
+
+        DeltaBase baseHashes();
+    }
+
+    @SneakyThrows
+    private static Method getMethod(String name) {
+        return MethodProvider.class.getMethod(name);
+    }
+
+    @Data @NoArgsConstructor @AllArgsConstructor
+    public static class DeltaImage {
+        private String baseId;
+        private Map<String, String> puts;
+        private List<String> removes;
+        private int from;
+        private int to;
+        private List<String> items;
+    }
+
+    @Data @NoArgsConstructor @AllArgsConstructor
+    public static class DeltaBase {
+        private String baseId;
+        private int size;
+        private Map<String, Long> mapHashes;
+        private List<Long> listHashes;
+    }
+
+    @Override
+    public void saveSnapshot(WestCacheOption option,
+                             String cacheKey,
+                             WestCacheItem cacheValue) {
+        val value = cacheValue.orNull();
+        if (!isDeltaType(option) || !isDeltaSupported(value)) {
+            bases.remove(cacheKey);
+            snapshot.deleteSnapshot(cloneOption(option, DELTA_METHOD), cacheKey + DELTA);
+            snapshot.saveSnapshot(option, cacheKey, cacheValue);
+            return;
+        }
+
+        val lock = locks.get(cacheKey);
+        lock.lock();
+        try {
+            val baseId = readBaseId(option, cacheKey);
+            val base = getBase(option, cacheKey, baseId);
+            if (base == null || value instanceof Map != (base.getMapHashes() != null)) {
+                rebase(option, cacheKey, cacheValue);
+                return;
+            }
+
+            val image = value instanceof Map
+                    ? diffMap(base, (Map<?, ?>) value)
+                    : diffList(base, (List<?>) value);
+            val deltaSize = image.getPuts().size() + image.getRemoves().size()
+                    + image.getItems().size() + image.getTo() - image.getFrom();
+            if (deltaSize > rebaseRatio(option) * Math.max(base.getSize(), 1)) {
+                rebase(option, cacheKey, cacheValue);
+                return;
+            }
+
+            val deltaOption = cloneOption(option, DELTA_METHOD);
+            val item = new WestCacheItem(Optional.of(image), deltaOption);
+            snapshot.saveSnapshot(deltaOption, cacheKey + DELTA, item);
+            log.debug("saved delta snapshot {} with {} changes", cacheKey, deltaSize);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public WestCacheItem readSnapshot(WestCacheOption option,
+                                      String cacheKey) {
+        val baseItem = snapshot.readSnapshot(option, cacheKey);
+        if (baseItem == null || !isDeltaType(option)
+                || !isDeltaSupported(baseItem.orNull())) return baseItem;
+
+        val deltaOption = cloneOption(option, DELTA_METHOD);
+        val deltaItem = snapshot.readSnapshot(deltaOption, cacheKey + DELTA);
+        if (deltaItem == null || deltaItem.orNull() == null) return baseItem;
+
+        val image = (DeltaImage) deltaItem.orNull();
+        if (!StringUtils.equals(image.getBaseId(), readBaseId(option, cacheKey))) {
+            return baseItem;
+        }
+
+        val returnType = option.getMethod().getGenericReturnType();
+        val base = baseItem.orNull();
+        val value = base instanceof Map
+                ? replayMap((Map<?, ?>) base, image, returnType)
+                : replayList((List<?>) base, image, returnType);
+        return new WestCacheItem(Optional.of(value), option);
+    }
+
+    @Override
+    public void deleteSnapshot(WestCacheOption option, String cacheKey) {
+        bases.remove(cacheKey);
+        snapshot.deleteSnapshot(cloneOption(option, DELTA_METHOD), cacheKey + DELTA);
+        snapshot.deleteSnapshot(cloneOption(option, BASE_ID_METHOD), cacheKey + BASE_ID);
+        snapshot.deleteSnapshot(cloneOption(option, BASE_HASHES_METHOD), cacheKey + BASE_HASHES);
+        snapshot.deleteSnapshot(option, cacheKey);
+    }
+
+    /**
+     * Get the hash index of the current base image, which is loaded from
+     * cacheKey.basehashes after a restart.
+     *
+     * @param option   westcache settings.
+     * @param cacheKey cache key.
+     * @param baseId   the current base id, or null if no base image.
+     * @return hash index, or null when there is no index of the current base.
+     */
+    private DeltaBase getBase(WestCacheOption option, String cacheKey, String baseId) {
+        if (baseId == null) return null;
+
+        val base = bases.get(cacheKey);
+        if (base != null && baseId.equals(base.getBaseId())) return base;
+
+        val hashesOption = cloneOption(option, BASE_HASHES_METHOD);
+        val item = snapshot.readSnapshot(hashesOption, cacheKey + BASE_HASHES);
+        val saved = item == null ? null : (DeltaBase) item.orNull();
+        if (saved == null || !baseId.equals(saved.getBaseId())) return null;
+
+        bases.put(cacheKey, saved);
+        return saved;
+    }
+
+    private void rebase(WestCacheOption option, String cacheKey,
+                        WestCacheItem cacheValue) {
+        val baseIdOption = cloneOption(option, BASE_ID_METHOD);
+        snapshot.deleteSnapshot(cloneOption(option, DELTA_METHOD), cacheKey + DELTA);
+        snapshot.saveSnapshot(option, cacheKey, cacheValue);
+
+        val baseId = UUID.randomUUID().toString();
+        val baseIdItem = new WestCacheItem(Optional.of(baseId), baseIdOption);
+        snapshot.saveSnapshot(baseIdOption, cacheKey + BASE_ID, baseIdItem);
+
+        val value = cacheValue.orNull();
+        val base = value instanceof Map
+                ? new DeltaBase(baseId, ((Map) value).size(), hashMap((Map<?, ?>) value), null)
+                : new DeltaBase(baseId, ((List) value).size(), null, hashList((List<?>) value));
+        val hashesOption = cloneOption(option, BASE_HASHES_METHOD);
+        snapshot.saveSnapshot(hashesOption, cacheKey + BASE_HASHES,
+                new WestCacheItem(Optional.of(base), hashesOption));
+        bases.put(cacheKey, base);
+        log.debug("saved base snapshot {} with base id {}", cacheKey, baseId);
+    }
+
+    private String readBaseId(WestCacheOption option, String cacheKey) {
+        val item = snapshot.readSnapshot(cloneOption(option, BASE_ID_METHOD), cacheKey + BASE_ID);
+        return item == null ? null : (String) item.orNull();
+    }
+
+    private DeltaImage diffMap(DeltaBase base, Map<?, ?> value) {
+        Map<String, String> puts = Maps.newLinkedHashMap();
+        for (val entry : value.entrySet()) {
+            val key = FastJsons.json(entry.getKey());
+            val json = FastJsons.json(entry.getValue());
+            val hash = base.getMapHashes().get(key);
+            if (hash == null || hash != hash(json)) puts.put(key, json);
+        }
+
+        Set<String> keys = Sets.newHashSetWithExpectedSize(value.size());
+        for (val key : value.keySet()) keys.add(FastJsons.json(key));
+
+        List<String> removes = Lists.newArrayList();
+        for (val key : base.getMapHashes().keySet()) {
+            if (!keys.contains(key)) removes.add(key);
+        }
+
+        return new DeltaImage(base.getBaseId(), puts, removes, 0, 0, Lists.<String>newArrayList());
+    }
+
+    private DeltaImage diffList(DeltaBase base, List<?> value) {
+        val hashes = hashList(value);
+        val baseHashes = base.getListHashes();
+        int prefix = 0;
+        val maxCommon = Math.min(hashes.size(), baseHashes.size());
+        while (prefix < maxCommon && hashes.get(prefix).equals(baseHashes.get(prefix))) ++prefix;
+
+        int suffix = 0;
+        while (suffix < maxCommon - prefix && hashes.get(hashes.size() - 1 - suffix)
+                .equals(baseHashes.get(baseHashes.size() - 1 - suffix))) ++suffix;
+
+        List<String> items = Lists.newArrayList();
+        for (int i = prefix, ii = value.size() - suffix; i < ii; ++i) {
+            items.add(FastJsons.json(value.get(i)));
+        }
+
+        return new DeltaImage(base.getBaseId(), Maps.<String, String>newHashMap(),
+                Lists.<String>newArrayList(), prefix, baseHashes.size() - suffix, items);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Object, Object> replayMap(Map<?, ?> base, DeltaImage image, Type returnType) {
+        val keyType = typeArgument(returnType, 0);
+        val valueType = typeArgument(returnType, 1);
+
+        Map<Object, Object> map = Maps.newLinkedHashMap(base);
+        for (val key : image.getRemoves()) {
+            map.remove(FastJsons.parse(key, keyType));
+        }
+        for (val entry : image.getPuts().entrySet()) {
+            map.put(FastJsons.parse(entry.getKey(), keyType), FastJsons.parse(entry.getValue(), valueType));
+        }
+
+        return map;
+    }
+
+    private List<Object> replayList(List<?> base, DeltaImage image, Type returnType) {
+        val elementType = typeArgument(returnType, 0);
+
+        List<Object> list = Lists.newArrayList(base.subList(0, image.getFrom()));
+        for (val item : image.getItems()) {
+            list.add(FastJsons.parse(item, elementType));
+        }
+        list.addAll(base.subList(image.getTo(), base.size()));
+
+        return list;
+    }
+
+    private Type typeArgument(Type type, int index) {
+        if (!(type instanceof ParameterizedType)) return Object.class;
+
+        return ((ParameterizedType) type).getActualTypeArguments()[index];
+    }
+
+    private Map<String, Long> hashMap(Map<?, ?> value) {
+        Map<String, Long> hashes = Maps.newHashMap();
+        for (val entry : value.entrySet()) {
+            val json = FastJsons.json(entry.getValue());
+            hashes.put(FastJsons.json(entry.getKey()), hash(json));
+        }
+        return hashes;
+    }
+
+    private List<Long> hashList(List<?> value) {
+        List<Long> hashes = Lists.newArrayListWithCapacity(value.size());
+        for (val item : value) {
+            hashes.add(hash(FastJsons.json(item)));
+        }
+        return hashes;
+    }
+
+    private long hash(String json) {
+        return Hashing.murmur3_128().hashString(json, Charsets.UTF_8).asLong();
+    }
+
+    private boolean isDeltaType(WestCacheOption option) {
+        val returnType = option.getMethod().getReturnType();
+        return returnType.isAssignableFrom(LinkedHashMap.class)
+                || returnType.isAssignableFrom(ArrayList.class);
+    }
+
+    private boolean isDeltaSupported(Object value) {
+        if (value instanceof List) return true;
+        if (!(value instanceof Map)) return false;
+
+        for (val key : ((Map<?, ?>) value).keySet()) {
+            if (!(key instanceof String || key instanceof Number
+                    || key instanceof Enum)) return false;
+        }
+        return true;
+    }
+
+    private double rebaseRatio(WestCacheOption option) {
+        val ratio = option.getSpecs().get("deltaRebaseRatio");
+        return StringUtils.isBlank(ratio) ? 0.3 : Double.parseDouble(ratio);
+    }
+
+    private WestCacheOption cloneOption(WestCacheOption option, Method method) {
+        return WestCacheOption.builder().clone(option).method(method).build();
+    }
+}
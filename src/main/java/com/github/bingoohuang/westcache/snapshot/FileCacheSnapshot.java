@@ -3,54 +3,270 @@ package com.github.bingoohuang.westcache.snapshot;
 import com.github.bingoohuang.westcache.base.WestCacheItem;
 import com.github.bingoohuang.westcache.base.WestCacheSnapshot;
 import com.github.bingoohuang.westcache.utils.FastJsons;
+import com.github.bingoohuang.westcache.utils.Methods;
 import com.github.bingoohuang.westcache.utils.Snapshots;
 import com.github.bingoohuang.westcache.utils.WestCacheOption;
 import com.google.common.base.Charsets;
 import com.google.common.base.Optional;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingOutputStream;
 import com.google.common.io.Files;
+import lombok.AllArgsConstructor;
+import lombok.Cleanup;
 import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 
-import java.io.File;
+import java.io.*;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
 
-import static com.github.bingoohuang.westcache.utils.Snapshots.CACHE_HOME;
-import static com.github.bingoohuang.westcache.utils.Snapshots.EXTENSION;
+import static com.github.bingoohuang.westcache.utils.Snapshots.DELETING_EXTENSION;
+import static com.github.bingoohuang.westcache.utils.Snapshots.TEMP_EXTENSION;
 
 
 /**
+ * Snapshot in local files.
+ * <p>
+ * Each file starts with a fixed length header line of format version,
+ * return type signature hash, CRC32 checksum, write timestamp and length
+ * of the json body. The file is written to a temp file, which is synced to
+ * the disk and renamed into place atomically, and the replaced one is copied
+ * as the previous generation before, so there is always a current file.
+ * A truncated file or a file of another return type is rejected by the header
+ * only, a corrupted body is rejected by the checksum, and then the previous
+ * generation is tried.
+ *
  * @author bingoohuang [bingoohuang@gmail.com] Created on 2016/12/22.
  */
+@Slf4j
 public class FileCacheSnapshot implements WestCacheSnapshot {
+    public static final String MAGIC = "WESTCACHE";
+    public static final int FORMAT_VERSION = 1;
+    public static final int HEADER_LENGTH = header(new Header(FORMAT_VERSION, 0, 0, 0, 0)).length;
+    /**
+     * The header which starts with the MAGIC but can not be parsed.
+     */
+    private static final Header CORRUPTED_HEADER = new Header(-1, 0, 0, 0, 0);
+
+    @AllArgsConstructor
+    private static class Header {
+        final int version;
+        final int signature;
+        final long checksum;
+        final long timestamp;
+        final long length;
+    }
+
     @Override @SneakyThrows
     public void saveSnapshot(WestCacheOption option,
                              String cacheKey,
                              WestCacheItem cacheValue) {
-        val json = FastJsons.json(cacheValue.getObject().orNull());
-
         val snapshotFile = Snapshots.getSnapshotFile(cacheKey);
-        Files.asCharSink(snapshotFile, Charsets.UTF_8).write(json);
+        val tempName = cacheKey + "." + System.nanoTime() + TEMP_EXTENSION;
+        val tempFile = new File(snapshotFile.getParentFile(), tempName);
+        try {
+            writeSnapshotFile(tempFile, signature(option), cacheValue.getObject().orNull());
+
+            if (snapshotFile.isFile()) copyPrevGeneration(cacheKey, snapshotFile);
+            java.nio.file.Files.move(tempFile.toPath(), snapshotFile.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            // the orphaned file will be cleaned by FileSnapshotMaintainer
+            if (tempFile.exists() && !tempFile.delete()) tempFile.deleteOnExit();
+        }
+    }
+
+    /**
+     * Copy the current file as the previous generation, without removing
+     * the current file, so a crash before the new file is moved into place
+     * still leaves the current file.
+     */
+    @SneakyThrows
+    private void copyPrevGeneration(String cacheKey, File snapshotFile) {
+        val prevFile = Snapshots.getPrevSnapshotFile(snapshotFile);
+        val prevTemp = new File(snapshotFile.getParentFile(),
+                cacheKey + ".prev." + System.nanoTime() + TEMP_EXTENSION);
+        try {
+            java.nio.file.Files.copy(snapshotFile.toPath(), prevTemp.toPath());
+            java.nio.file.Files.move(prevTemp.toPath(), prevFile.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            if (prevTemp.exists() && !prevTemp.delete()) prevTemp.deleteOnExit();
+        }
     }
 
     @Override @SneakyThrows
     public WestCacheItem readSnapshot(WestCacheOption option,
                                       String cacheKey) {
         val snapshotFile = Snapshots.getSnapshotFile(cacheKey);
-        if (!snapshotFile.exists() || !snapshotFile.isFile()) return null;
+        val item = readSnapshotFile(option, snapshotFile);
+        if (item != null) {
+            Snapshots.touch(snapshotFile);
+            return item;
+        }
 
-        val json = Files.asCharSource(snapshotFile, Charsets.UTF_8).read();
-        val object = FastJsons.parse(json, option.getMethod(), true);
-        val optional = Optional.fromNullable(object);
-        return new WestCacheItem(optional, option);
+        val prevFile = Snapshots.getPrevSnapshotFile(snapshotFile);
+        val prevItem = readSnapshotFile(option, prevFile);
+        if (prevItem != null) {
+            log.warn("read previous generation snapshot {}", prevFile);
+            Snapshots.touch(prevFile);
+        }
+
+        return prevItem;
     }
 
     @Override @SneakyThrows
     public void deleteSnapshot(WestCacheOption option, String cacheKey) {
         val snapshotFile = Snapshots.getSnapshotFile(cacheKey);
+        deleteSnapshotFile(cacheKey, Snapshots.getPrevSnapshotFile(snapshotFile));
+        deleteSnapshotFile(cacheKey, snapshotFile);
+    }
+
+    private void deleteSnapshotFile(String cacheKey, File snapshotFile) {
         if (!snapshotFile.exists() || !snapshotFile.isFile()) return;
 
-        val tempFile = File.createTempFile(cacheKey, EXTENSION, CACHE_HOME);
-        snapshotFile.renameTo(tempFile);
+        val deletingName = cacheKey + "." + System.nanoTime() + DELETING_EXTENSION;
+        val tempFile = new File(snapshotFile.getParentFile(), deletingName);
+        if (!snapshotFile.renameTo(tempFile)) {
+            log.warn("rename snapshot file {} for deleting failed", snapshotFile);
+            return;
+        }
+
+        // the orphaned file will be cleaned by FileSnapshotMaintainer
+        if (!tempFile.delete()) tempFile.deleteOnExit();
+    }
+
+    @SneakyThrows
+    private void writeSnapshotFile(File file, int signature, Object value) {
+        val checksum = new CRC32();
+        @Cleanup val out = new FileOutputStream(file);
+        out.write(header(new Header(FORMAT_VERSION, 0, 0, 0, 0)));
+
+        val counting = new CountingOutputStream(new BufferedOutputStream(out));
+        val writer = new OutputStreamWriter(new CheckedOutputStream(counting, checksum), Charsets.UTF_8);
+        FastJsons.json(value, writer);
+        writer.flush();
+
+        val header = new Header(FORMAT_VERSION, signature, checksum.getValue(),
+                System.currentTimeMillis(), counting.getCount());
+        out.getChannel().position(0);
+        out.write(header(header));
+        out.getChannel().force(true); // durable before renamed into place
+    }
+
+    @SneakyThrows
+    private WestCacheItem readSnapshotFile(WestCacheOption option, File file) {
+        if (!file.exists() || !file.isFile()) return null;
+
+        val fileLength = file.length();
+        @Cleanup val in = Files.asByteSource(file).openBufferedStream();
+        val header = readHeader(in, fileLength);
+        if (header == null) return readLegacyFile(option, file, fileLength);
+        if (header == CORRUPTED_HEADER) {
+            log.warn("snapshot {} is corrupted, damaged header", file);
+            return null;
+        }
+
+        if (header.version != FORMAT_VERSION) {
+            log.warn("snapshot {} is of unsupported format version {}", file, header.version);
+            return null;
+        }
+        if (header.length != fileLength - HEADER_LENGTH) {
+            log.warn("snapshot {} is truncated, expected {} bytes but {}",
+                    file, header.length, fileLength - HEADER_LENGTH);
+            return null;
+        }
+        if (header.signature != signature(option)) {
+            log.warn("snapshot {} is written by another return type", file);
+            return null;
+        }
+
+        val checksum = new CRC32();
+        val checked = new CheckedInputStream(in, checksum);
+        Object object;
+        try {
+            // the parser reads up to EOF before closing, so the whole body is checksummed
+            val reader = new InputStreamReader(checked, Charsets.UTF_8);
+            object = FastJsons.parse(reader, option.getMethod(), false);
+        } catch (Exception ex) {
+            log.warn("snapshot {} is corrupted, {}", file, ex.getMessage());
+            return null;
+        }
+
+        if (checksum.getValue() != header.checksum) {
+            log.warn("snapshot {} is corrupted, checksum mismatched", file);
+            return null;
+        }
+
+        return new WestCacheItem(Optional.fromNullable(object), option);
+    }
+
+    /**
+     * Read the snapshot file written before the header was introduced,
+     * whose content is the json only. A file which is not valid json,
+     * like one with a damaged or truncated header, is rejected as corrupted
+     * instead of being read as a cached null.
+     */
+    @SneakyThrows
+    private WestCacheItem readLegacyFile(WestCacheOption option, File file, long fileLength) {
+        if (fileLength == 0) {
+            log.warn("snapshot {} is corrupted, empty file", file);
+            return null;
+        }
+
+        log.warn("snapshot {} without header is read as legacy format", file);
+        @Cleanup val reader = Files.asCharSource(file, Charsets.UTF_8).openBufferedStream();
+        try {
+            val object = FastJsons.parse(reader, option.getMethod(), false);
+            return new WestCacheItem(Optional.fromNullable(object), option);
+        } catch (Exception ex) {
+            log.warn("snapshot {} is corrupted, {}", file, ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Read the header of the snapshot file.
+     *
+     * @return header, null when the file is of the legacy format without
+     * header, or CORRUPTED_HEADER when the header can not be parsed.
+     */
+    @SneakyThrows
+    private Header readHeader(InputStream in, long fileLength) {
+        if (fileLength < HEADER_LENGTH) return null;
+
+        val bytes = new byte[HEADER_LENGTH];
+        ByteStreams.readFully(in, bytes);
+        val fields = new String(bytes, Charsets.US_ASCII).trim().split(" ");
+        if (!MAGIC.equals(fields[0])) return null;
+        if (fields.length != 6) return CORRUPTED_HEADER;
+
+        try {
+            return new Header(Integer.parseInt(fields[1], 16),
+                    (int) Long.parseLong(fields[2], 16),
+                    Long.parseLong(fields[3], 16),
+                    Long.parseLong(fields[4], 16),
+                    Long.parseLong(fields[5], 16));
+        } catch (NumberFormatException ex) {
+            return CORRUPTED_HEADER;
+        }
+    }
+
+    private static byte[] header(Header header) {
+        val line = String.format("%s %02x %08x %08x %016x %016x\n", MAGIC, header.version,
+                header.signature, header.checksum, header.timestamp, header.length);
+        return line.getBytes(Charsets.US_ASCII);
+    }
+
+    private int signature(WestCacheOption option) {
+        if (option == null || option.getMethod() == null) return 0;
 
-        tempFile.delete();
+        // the value type, which the payload is parsed by
+        val typeName = Methods.getValueType(option.getMethod()).getTypeName();
+        return Hashing.murmur3_32().hashString(typeName, Charsets.UTF_8).asInt();
     }
 }
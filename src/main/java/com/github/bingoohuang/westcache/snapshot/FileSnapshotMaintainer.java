@@ -0,0 +1,247 @@
+package com.github.bingoohuang.westcache.snapshot;
+
+import com.github.bingoohuang.westcache.utils.Snapshots;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background maintenance of the file snapshots under the cache home.
+ * <p>
+ * Each round removes the orphaned deleting and temp files, the snapshots which are
+ * not accessed for maxIdleMillis, and then the least recently accessed
+ * snapshots until the total size is under maxTotalBytes.
+ * <p>
+ * The last access of a snapshot is the later of its mtime and its last read
+ * in this process, tracked by Snapshots.touch, instead of the atime which is
+ * not updated on the common noatime or relatime mounts. Snapshots.touch also
+ * persists the reads as the mtime now and then, so they survive the restarts.
+ * <p>
+ * The maintainer of the cache home is started along with the registration of
+ * the file snapshots when the system property westcache.snapshotMaintainMillis
+ * is set, with the budgets of westcache.snapshotMaxTotalBytes and
+ * westcache.snapshotMaxIdleMillis. Otherwise start one manually.
+ *
+ * @author bingoohuang [bingoohuang@gmail.com] Created on 2026/10/19.
+ */
+@Slf4j
+public class FileSnapshotMaintainer {
+    public static final String MAINTAIN_MILLIS = "westcache.snapshotMaintainMillis";
+    public static final String MAX_TOTAL_BYTES = "westcache.snapshotMaxTotalBytes";
+    public static final String MAX_IDLE_MILLIS = "westcache.snapshotMaxIdleMillis";
+
+    private static FileSnapshotMaintainer configured;
+
+    private final File cacheHome;
+    /**
+     * Total disk budget of snapshots, 0 means unlimited.
+     */
+    @Getter @Setter private volatile long maxTotalBytes;
+    /**
+     * Snapshots not accessed for the duration will be removed, 0 means never.
+     */
+    @Getter @Setter private volatile long maxIdleMillis;
+    /**
+     * Orphaned deleting or temp files older than the duration will be removed.
+     */
+    @Getter @Setter private volatile long orphanMillis = TimeUnit.MINUTES.toMillis(10);
+    /**
+     * The dot separated segments count of cache key to report disk usage.
+     */
+    @Getter @Setter private volatile int prefixDepth = 2;
+
+    private ScheduledExecutorService executorService;
+    private ScheduledFuture<?> scheduledFuture;
+
+    public FileSnapshotMaintainer() {
+        this(Snapshots.CACHE_HOME);
+    }
+
+    public FileSnapshotMaintainer(File cacheHome) {
+        this.cacheHome = cacheHome;
+    }
+
+    /**
+     * Start the maintainer of the cache home by the system properties once,
+     * which is called by the registration of the file snapshots.
+     *
+     * @return the started maintainer, or null when westcache.snapshotMaintainMillis is not set.
+     */
+    public static synchronized FileSnapshotMaintainer startByConfig() {
+        if (configured == null) configured = startByConfig(Snapshots.CACHE_HOME);
+        return configured;
+    }
+
+    static FileSnapshotMaintainer startByConfig(File cacheHome) {
+        val intervalMillis = Long.getLong(MAINTAIN_MILLIS, 0L);
+        if (intervalMillis <= 0) return null;
+
+        val maintainer = new FileSnapshotMaintainer(cacheHome);
+        maintainer.setMaxTotalBytes(Long.getLong(MAX_TOTAL_BYTES, 0L));
+        maintainer.setMaxIdleMillis(Long.getLong(MAX_IDLE_MILLIS, 0L));
+        maintainer.start(intervalMillis);
+        log.info("started snapshot maintainer of {} every {} millis, maxTotalBytes:{} maxIdleMillis:{}",
+                cacheHome, intervalMillis, maintainer.getMaxTotalBytes(), maintainer.getMaxIdleMillis());
+        return maintainer;
+    }
+
+    public synchronized boolean isStarted() {
+        return scheduledFuture != null;
+    }
+
+    public synchronized void start(long intervalMillis) {
+        if (scheduledFuture != null) return;
+
+        val threadFactory = new ThreadFactoryBuilder()
+                .setNameFormat("westcache-snapshot-maintainer")
+                .setDaemon(true).build();
+        executorService = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        scheduledFuture = executorService.scheduleWithFixedDelay(() -> {
+            try {
+                maintain();
+            } catch (Exception ex) {
+                log.warn("maintain snapshots error", ex);
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduledFuture == null) return;
+
+        scheduledFuture.cancel(false);
+        executorService.shutdown();
+        scheduledFuture = null;
+        executorService = null;
+    }
+
+    /**
+     * Run one round of maintenance.
+     *
+     * @return number of files removed.
+     */
+    public int maintain() {
+        val now = System.currentTimeMillis();
+        int removed = 0;
+        long totalBytes = 0;
+
+        List<SnapshotFile> snapshots = Lists.newArrayList();
+        for (val file : listFiles()) {
+            val snapshotFile = readSnapshotFile(file);
+            if (snapshotFile == null) continue;
+
+            if (isOrphan(file)) {
+                if (now - snapshotFile.lastModified > orphanMillis && file.delete()) ++removed;
+            } else if (Snapshots.parseCacheKey(file) != null) {
+                snapshots.add(snapshotFile);
+                totalBytes += snapshotFile.length;
+            }
+        }
+
+        Collections.sort(snapshots, Comparator.comparingLong(f -> f.lastAccessed));
+        for (val snapshot : snapshots) {
+            val idle = maxIdleMillis > 0 && now - snapshot.lastAccessed > maxIdleMillis;
+            val overBudget = maxTotalBytes > 0 && totalBytes > maxTotalBytes;
+            if (!idle && !overBudget) continue;
+            if (!snapshot.file.delete()) continue;
+            Snapshots.untouch(snapshot.file);
+            log.debug("removed snapshot {} idle:{} overBudget:{}", snapshot.file, idle, overBudget);
+            totalBytes -= snapshot.length;
+            ++removed;
+        }
+
+        log.debug("maintained snapshots, removed {} files, total {} bytes", removed, totalBytes);
+        return removed;
+    }
+
+    /**
+     * Report the disk usage in bytes per cache key prefix.
+     *
+     * @return map of cache key prefix to bytes.
+     */
+    public Map<String, Long> diskUsageByPrefix() {
+        Map<String, Long> usage = Maps.newTreeMap();
+        for (val file : listFiles()) {
+            val cacheKey = Snapshots.parseCacheKey(file);
+            if (cacheKey == null) continue;
+
+            val prefix = keyPrefix(cacheKey);
+            val bytes = usage.get(prefix);
+            usage.put(prefix, (bytes == null ? 0 : bytes) + file.length());
+        }
+
+        return usage;
+    }
+
+    private boolean isOrphan(File file) {
+        val name = file.getName();
+        return name.endsWith(Snapshots.DELETING_EXTENSION)
+                || name.endsWith(Snapshots.TEMP_EXTENSION);
+    }
+
+    private String keyPrefix(String cacheKey) {
+        int pos = StringUtils.ordinalIndexOf(cacheKey, ".", prefixDepth);
+        return pos < 0 ? cacheKey : cacheKey.substring(0, pos);
+    }
+
+    private List<File> listFiles() {
+        List<File> files = Lists.newArrayList();
+        val children = cacheHome.listFiles();
+        if (children == null) return files;
+
+        for (val child : children) {
+            if (child.isFile()) {
+                files.add(child);
+                continue;
+            }
+
+            val shardFiles = child.listFiles();
+            if (shardFiles == null) continue;
+
+            for (val shardFile : shardFiles) {
+                if (shardFile.isFile()) files.add(shardFile);
+            }
+        }
+
+        return files;
+    }
+
+    @SneakyThrows
+    private SnapshotFile readSnapshotFile(File file) {
+        try {
+            val attrs = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+            val lastModified = attrs.lastModifiedTime().toMillis();
+            val lastAccessed = Math.max(Snapshots.getLastTouched(file), lastModified);
+            return new SnapshotFile(file, attrs.size(), lastModified, lastAccessed);
+        } catch (NoSuchFileException ex) {
+            return null; // removed concurrently
+        }
+    }
+
+    @AllArgsConstructor
+    private static class SnapshotFile {
+        final File file;
+        final long length;
+        final long lastModified;
+        final long lastAccessed;
+    }
+}
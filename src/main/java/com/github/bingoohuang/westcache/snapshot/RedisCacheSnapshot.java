@@ -8,6 +8,8 @@ import com.github.bingoohuang.westcache.utils.WestCacheOption;
 import com.google.common.base.Optional;
 import lombok.AllArgsConstructor;
 import lombok.val;
+import redis.clients.jedis.BinaryJedisCommands;
+import redis.clients.util.SafeEncoder;
 
 
 /**
@@ -25,17 +27,34 @@ public class RedisCacheSnapshot implements WestCacheSnapshot {
     public void saveSnapshot(WestCacheOption option,
                              String cacheKey,
                              WestCacheItem cacheValue) {
-        val json = FastJsons.json(cacheValue.getObject().orNull());
-        Redis.getRedis(option).set(prefix + cacheKey, json);
+        val redis = Redis.getRedis(option);
+        val value = cacheValue.getObject().orNull();
+        if (redis instanceof BinaryJedisCommands) {
+            val bytes = FastJsons.jsonBytes(value);
+            ((BinaryJedisCommands) redis).set(SafeEncoder.encode(prefix + cacheKey), bytes);
+        } else {
+            redis.set(prefix + cacheKey, FastJsons.json(value));
+        }
     }
 
     @Override
     public WestCacheItem readSnapshot(WestCacheOption option,
                                       String cacheKey) {
-        val json = Redis.getRedis(option).get(prefix + cacheKey);
-        if (json == null) return null;
+        val redis = Redis.getRedis(option);
+        Object object;
+        if (redis instanceof BinaryJedisCommands) {
+            val key = SafeEncoder.encode(prefix + cacheKey);
+            val bytes = ((BinaryJedisCommands) redis).get(key);
+            if (bytes == null) return null;
+
+            object = FastJsons.parse(bytes, option.getMethod(), true);
+        } else {
+            val json = redis.get(prefix + cacheKey);
+            if (json == null) return null;
+
+            object = FastJsons.parse(json, option.getMethod(), true);
+        }
 
-        val object = FastJsons.parse(json, option.getMethod(), true);
         val optional = Optional.fromNullable(object);
         return new WestCacheItem(optional, option);
     }
@@ -0,0 +1,251 @@
+package com.github.bingoohuang.westcache.snapshot;
+
+import com.github.bingoohuang.westcache.base.WestCacheItem;
+import com.github.bingoohuang.westcache.base.WestCacheSnapshot;
+import com.github.bingoohuang.westcache.utils.FastJsons;
+import com.github.bingoohuang.westcache.utils.Keys;
+import com.github.bingoohuang.westcache.utils.Redis;
+import com.github.bingoohuang.westcache.utils.ThreadFactories;
+import com.github.bingoohuang.westcache.utils.WestCacheOption;
+import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.apache.commons.lang3.StringUtils;
+import redis.clients.jedis.BinaryJedisCommands;
+import redis.clients.jedis.ScanParams;
+import redis.clients.util.SafeEncoder;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+
+/**
+ * Snapshot in redis hashes, one hash per cache namespace.
+ * <p>
+ * The namespace is the snapshotNamespace spec, or the part of cache key
+ * before the method name, like PengService for PengService.getCities_11.
+ * The first read of a namespace starts to restore the entries of the
+ * namespace by HSCAN batches in a background thread, and reads by HGET
+ * itself. The following reads of the namespace are served from the
+ * restored entries, which are at most restoreMaxSize, consumed once and
+ * kept for at most one minute. The entries saved or deleted during the
+ * restore are not restored, to keep the older values out, and a restore
+ * of a namespace deleted meanwhile is aborted.
+ *
+ * @author bingoohuang [bingoohuang@gmail.com] Created on 2026/10/19.
+ */
+@Slf4j
+public class RedisHashCacheSnapshot implements WestCacheSnapshot {
+    public static final int SCAN_COUNT = 500;
+    public static final int RESTORE_MAX_SIZE = 10000;
+
+    private static final ExecutorService restorer =
+            ThreadFactories.newTaskExecutor("westcache-snapshot-restore-");
+
+    final String prefix;
+    final int restoreMaxSize;
+    private final Set<String> restoredNamespaces = Sets.newConcurrentHashSet();
+    private final Cache<String, String> restored;
+    private final Cache<String, Boolean> changed;
+    /**
+     * The generations of the namespaces, increased by the namespace deletes
+     * to abort the restores in flight.
+     */
+    private final ConcurrentMap<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public RedisHashCacheSnapshot() {
+        this(Redis.PREFIX + "snapshot:");
+    }
+
+    public RedisHashCacheSnapshot(String prefix) {
+        this(prefix, RESTORE_MAX_SIZE);
+    }
+
+    public RedisHashCacheSnapshot(String prefix, int restoreMaxSize) {
+        this.prefix = prefix;
+        this.restoreMaxSize = restoreMaxSize;
+        this.restored = CacheBuilder.newBuilder().maximumSize(restoreMaxSize)
+                .expireAfterWrite(1, TimeUnit.MINUTES).build();
+        this.changed = CacheBuilder.newBuilder().maximumSize(restoreMaxSize)
+                .expireAfterWrite(1, TimeUnit.MINUTES).build();
+    }
+
+    @Override
+    public void saveSnapshot(WestCacheOption option,
+                             String cacheKey,
+                             WestCacheItem cacheValue) {
+        changed.put(cacheKey, Boolean.TRUE);
+        restored.invalidate(cacheKey);
+
+        val redis = Redis.getRedis(option);
+        val hashKey = prefix + namespace(option, cacheKey);
+        val value = cacheValue.getObject().orNull();
+        if (redis instanceof BinaryJedisCommands) {
+            ((BinaryJedisCommands) redis).hset(SafeEncoder.encode(hashKey),
+                    SafeEncoder.encode(cacheKey), FastJsons.jsonBytes(value));
+        } else {
+            redis.hset(hashKey, cacheKey, FastJsons.json(value));
+        }
+        restored.invalidate(cacheKey);
+    }
+
+    @Override
+    public WestCacheItem readSnapshot(WestCacheOption option,
+                                      String cacheKey) {
+        val namespace = namespace(option, cacheKey);
+        if (restoredNamespaces.add(namespace)) {
+            restorer.submit(() -> restoreInBackground(option, namespace));
+        }
+
+        val json = restored.asMap().remove(cacheKey);
+        if (json != null) return parse(option, json);
+
+        val redis = Redis.getRedis(option);
+        val hashKey = prefix + namespace;
+        if (redis instanceof BinaryJedisCommands) {
+            val bytes = ((BinaryJedisCommands) redis).hget(
+                    SafeEncoder.encode(hashKey), SafeEncoder.encode(cacheKey));
+            if (bytes == null) return null;
+
+            val object = FastJsons.parse(bytes, option.getMethod(), true);
+            return new WestCacheItem(Optional.fromNullable(object), option);
+        }
+
+        val value = redis.hget(hashKey, cacheKey);
+        return value == null ? null : parse(option, value);
+    }
+
+    @Override
+    public void deleteSnapshot(WestCacheOption option, String cacheKey) {
+        changed.put(cacheKey, Boolean.TRUE);
+        restored.invalidate(cacheKey);
+        Redis.getRedis(option).hdel(prefix + namespace(option, cacheKey), cacheKey);
+        restored.invalidate(cacheKey);
+    }
+
+    /**
+     * Restore the snapshot json of the namespace by HSCAN batches,
+     * at most restoreMaxSize entries.
+     *
+     * @param option    cache option for the redis.
+     * @param namespace cache namespace.
+     * @return map of cache key to snapshot json.
+     */
+    public Map<String, String> restore(WestCacheOption option, String namespace) {
+        return restore(option, namespace, () -> false);
+    }
+
+    private Map<String, String> restore(WestCacheOption option, String namespace, BooleanSupplier aborted) {
+        val redis = Redis.getRedis(option);
+        val hashKey = prefix + namespace;
+        val params = new ScanParams().count(SCAN_COUNT);
+
+        Map<String, String> snapshots = Maps.newHashMap();
+        String cursor = ScanParams.SCAN_POINTER_START;
+        do {
+            val result = redis.hscan(hashKey, cursor, params);
+            for (val entry : result.getResult()) {
+                if (snapshots.size() >= restoreMaxSize) return snapshots;
+
+                snapshots.put(entry.getKey(), entry.getValue());
+            }
+            cursor = result.getStringCursor();
+        } while (!ScanParams.SCAN_POINTER_START.equals(cursor) && !aborted.getAsBoolean());
+
+        return snapshots;
+    }
+
+    private void restoreInBackground(WestCacheOption option, String namespace) {
+        val generation = generation(namespace);
+        val started = generation.get();
+        try {
+            val snapshots = restore(option, namespace, () -> generation.get() != started);
+            synchronized (generation) {
+                if (generation.get() != started) {
+                    log.debug("restore snapshots of namespace {} aborted by delete", namespace);
+                    return;
+                }
+
+                for (val entry : snapshots.entrySet()) {
+                    if (changed.getIfPresent(entry.getKey()) == null) {
+                        restored.put(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+        } catch (Exception ex) {
+            log.warn("restore snapshots of namespace {} failed", namespace, ex);
+            restoredNamespaces.remove(namespace);
+        }
+    }
+
+    /**
+     * Delete the snapshots of the cache keys in the namespace by one HDEL.
+     *
+     * @param option    cache option for the redis.
+     * @param namespace cache namespace.
+     * @param cacheKeys cache keys to delete.
+     * @return number of deleted snapshots.
+     */
+    public long deleteSnapshots(WestCacheOption option, String namespace,
+                                Collection<String> cacheKeys) {
+        if (cacheKeys.isEmpty()) return 0;
+
+        for (val cacheKey : cacheKeys) {
+            changed.put(cacheKey, Boolean.TRUE);
+        }
+        restored.invalidateAll(cacheKeys);
+        val fields = cacheKeys.toArray(new String[cacheKeys.size()]);
+        val deleted = Redis.getRedis(option).hdel(prefix + namespace, fields);
+        restored.invalidateAll(cacheKeys);
+        return deleted;
+    }
+
+    /**
+     * Delete all the snapshots in the namespace, and abort its restore in flight.
+     *
+     * @param option    cache option for the redis.
+     * @param namespace cache namespace.
+     */
+    public void deleteNamespace(WestCacheOption option, String namespace) {
+        restored.invalidateAll();
+        Redis.getRedis(option).del(prefix + namespace);
+
+        val generation = generation(namespace);
+        synchronized (generation) {
+            generation.incrementAndGet();
+            restored.invalidateAll();
+        }
+    }
+
+    private AtomicLong generation(String namespace) {
+        val generation = generations.get(namespace);
+        if (generation != null) return generation;
+
+        val created = new AtomicLong();
+        val existing = generations.putIfAbsent(namespace, created);
+        return existing == null ? created : existing;
+    }
+
+    public static String namespace(WestCacheOption option, String cacheKey) {
+        val namespace = option.getSpecs().get("snapshotNamespace");
+        if (StringUtils.isNotBlank(namespace)) return namespace;
+
+        return Keys.namespace(cacheKey);
+    }
+
+    private WestCacheItem parse(WestCacheOption option, String json) {
+        val object = FastJsons.parse(json, option.getMethod(), true);
+        return new WestCacheItem(Optional.fromNullable(object), option);
+    }
+}
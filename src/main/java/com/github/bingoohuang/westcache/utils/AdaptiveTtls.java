@@ -0,0 +1,110 @@
+package com.github.bingoohuang.westcache.utils;
+
+import com.github.bingoohuang.westcache.base.WestCacheException;
+import com.github.bingoohuang.westcache.base.WestCacheItem;
+import com.google.common.base.Charsets;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.github.bingoohuang.utils.time.Durations.parse;
+
+/**
+ * Adaptive expireAfterWrite by the observed change frequency of the values,
+ * with specs like "adaptiveTtl=min:10s;max:1h;scope:method".
+ * <p>
+ * Every reload hashes the json of the value, whose map entries are sorted
+ * by keys, and compares it with the previous value of the cache key.
+ * The ttl of the scope, the cache key itself by default or the method
+ * with "scope:method", starts at min, and is doubled when the
+ * reload returns an identical value, or halved when the value changed,
+ * always within [min, max]. The absent results are left to negativeTtl.
+ *
+ * @author bingoohuang [bingoohuang@gmail.com] Created on 2026/10/19.
+ */
+@Slf4j @UtilityClass
+public class AdaptiveTtls {
+    public static final String ADAPTIVE_TTL = "adaptiveTtl";
+    public static final long MAX_KEYS = 100000;
+
+    private final Cache<String, Long> hashes = CacheBuilder.newBuilder().maximumSize(MAX_KEYS).build();
+    private final Cache<String, AtomicLong> ttls = CacheBuilder.newBuilder().maximumSize(MAX_KEYS).build();
+
+    public boolean isAdaptive(WestCacheOption option) {
+        return option != null && StringUtils.isNotBlank(option.getSpecs().get(ADAPTIVE_TTL));
+    }
+
+    /**
+     * Adapt the ttl of the scope of the cache key by the reloaded item,
+     * and return the item expiring after the adapted ttl.
+     *
+     * @param option   westcache settings.
+     * @param cacheKey cache key.
+     * @param item     reloaded item.
+     * @return the item with the adapted ttl, or the item itself when not adaptive.
+     */
+    public WestCacheItem adapt(WestCacheOption option, String cacheKey, WestCacheItem item) {
+        if (item == null || !item.isPresent() || !isAdaptive(option)) return item;
+
+        val settings = Specs.parseSubSpecs(option.getSpecs().get(ADAPTIVE_TTL));
+        val min = parseBound(settings.get("min"), "min");
+        val max = parseBound(settings.get("max"), "max");
+        if (min <= 0 || min > max) {
+            throw new WestCacheException("adaptiveTtl requires 0 < min <= max");
+        }
+
+        val hash = Hashing.murmur3_128().hashString(FastJsons.sortedJson(item.orNull()), Charsets.UTF_8).asLong();
+        val previous = hashes.asMap().put(cacheKey, hash);
+        val ttl = Guavas.cacheGet(ttls, scope(settings.get("scope"), cacheKey), () -> new AtomicLong(min));
+
+        long seconds;
+        if (previous == null) {
+            seconds = ttl.updateAndGet(t -> Math.min(max, Math.max(min, t)));
+        } else if (previous == hash) {
+            seconds = ttl.updateAndGet(t -> Math.min(max, Math.max(min, t * 2)));
+        } else {
+            seconds = ttl.updateAndGet(t -> Math.min(max, Math.max(min, t / 2)));
+        }
+
+        log.debug("cache key {} reloaded {}, adaptive ttl {}s", cacheKey,
+                previous == null ? "first" : previous == hash ? "unchanged" : "changed", seconds);
+        return new WestCacheItem(item.getObject(), seconds);
+    }
+
+    /**
+     * Get the current adaptive ttl of the scope, the cache key or the method.
+     *
+     * @param scope cache key or method key.
+     * @return ttl seconds, or 0 when not adapted yet.
+     */
+    public long getTtlSeconds(String scope) {
+        val ttl = ttls.getIfPresent(scope);
+        return ttl == null ? 0 : ttl.get();
+    }
+
+    public void reset() {
+        hashes.invalidateAll();
+        ttls.invalidateAll();
+    }
+
+    private String scope(String scope, String cacheKey) {
+        if (StringUtils.isBlank(scope) || "key".equals(scope)) return cacheKey;
+        if ("method".equals(scope)) return Keys.methodKey(cacheKey);
+
+        throw new WestCacheException("unknown adaptiveTtl scope " + scope);
+    }
+
+    private long parseBound(String value, String name) {
+        if (StringUtils.isBlank(value)) {
+            throw new WestCacheException("adaptiveTtl " + name + " is required");
+        }
+
+        return parse("adaptiveTtl " + name, value);
+    }
+}
@@ -0,0 +1,180 @@
+package com.github.bingoohuang.westcache.utils;
+
+import lombok.Getter;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * A circuit breaker of a remote backend like redis.
+ * <p>
+ * The outcomes of the latest windowSize calls are recorded, and a call
+ * slower than slowMillis is recorded as a failure. When there are at least
+ * minCalls outcomes and the failure rate reaches failureRate percent, the
+ * circuit opens, and all the calls go to their fallbacks. After openMillis,
+ * the circuit is half open, and one probe call at a time is let through,
+ * which closes the circuit after halfOpenProbes successes, or opens it
+ * again on a failure.
+ *
+ * @author bingoohuang [bingoohuang@gmail.com] Created on 2026/10/19.
+ */
+@Slf4j
+public class CircuitBreaker {
+    public enum State {CLOSED, OPEN, HALF_OPEN}
+
+    @Getter private final String name;
+    @Getter private final int windowSize;
+    @Getter private final int minCalls;
+    @Getter private final int failureRate;
+    @Getter private final long slowMillis;
+    @Getter private final long openMillis;
+    @Getter private final int halfOpenProbes;
+
+    private final boolean[] outcomes; // true for a failure
+    private int recorded;
+    private int position;
+    private int failures;
+
+    @Getter private volatile State state = State.CLOSED;
+    private long openedAt;
+    private boolean probing;
+    private int probeSuccesses;
+
+    public CircuitBreaker(String name, int windowSize, int minCalls, int failureRate,
+                          long slowMillis, long openMillis, int halfOpenProbes) {
+        this.name = name;
+        this.windowSize = windowSize;
+        this.minCalls = minCalls;
+        this.failureRate = failureRate;
+        this.slowMillis = slowMillis;
+        this.openMillis = openMillis;
+        this.halfOpenProbes = halfOpenProbes;
+        this.outcomes = new boolean[windowSize];
+    }
+
+    /**
+     * Create a circuit breaker by the settings like
+     * "windowSize:20;minCalls:10;failureRate:50;slowMillis:1000;openMillis:5000;halfOpenProbes:3",
+     * whose missing ones are defaulted to the values above.
+     *
+     * @param name     name of the breaker.
+     * @param settings settings map.
+     * @return circuit breaker.
+     */
+    public static CircuitBreaker create(String name, Map<String, String> settings) {
+        return new CircuitBreaker(name,
+                (int) setting(settings, "windowSize", 20),
+                (int) setting(settings, "minCalls", 10),
+                (int) setting(settings, "failureRate", 50),
+                setting(settings, "slowMillis", 1000),
+                setting(settings, "openMillis", 5000),
+                (int) setting(settings, "halfOpenProbes", 3));
+    }
+
+    private static long setting(Map<String, String> settings, String key, long defaultValue) {
+        val value = settings.get(key);
+        return value == null ? defaultValue : Long.parseLong(value);
+    }
+
+    public synchronized boolean isClosed() {
+        return state == State.CLOSED;
+    }
+
+    /**
+     * Tell whether the circuit is open and not yet ready for probing.
+     *
+     * @return true if open.
+     */
+    public synchronized boolean isOpen() {
+        return state == State.OPEN && System.currentTimeMillis() - openedAt < openMillis;
+    }
+
+    /**
+     * Call the backend through the breaker, or the fallback when the circuit
+     * is open or the backend call fails.
+     *
+     * @param backend  backend call.
+     * @param fallback fallback call.
+     * @param <T>      result type.
+     * @return result.
+     */
+    @SneakyThrows
+    public <T> T call(Callable<T> backend, Callable<T> fallback) {
+        if (!allowRequest()) return fallback.call();
+
+        val start = System.currentTimeMillis();
+        T result;
+        try {
+            result = backend.call();
+        } catch (Exception ex) {
+            log.warn("{} call failed, fallback", name, ex);
+            onResult(true);
+            return fallback.call();
+        }
+
+        onResult(System.currentTimeMillis() - start > slowMillis);
+        return result;
+    }
+
+    public synchronized boolean allowRequest() {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() - openedAt < openMillis) return false;
+
+            log.info("{} circuit is half open", name);
+            state = State.HALF_OPEN;
+            probeSuccesses = 0;
+            probing = false;
+        }
+
+        if (state == State.HALF_OPEN) {
+            if (probing) return false;
+            probing = true;
+        }
+
+        return true;
+    }
+
+    private synchronized void onResult(boolean failed) {
+        if (state == State.HALF_OPEN) {
+            probing = false;
+            if (failed) {
+                open();
+            } else if (++probeSuccesses >= halfOpenProbes) {
+                log.info("{} circuit is closed", name);
+                state = State.CLOSED;
+                resetWindow();
+            }
+        } else if (state == State.CLOSED) {
+            record(failed);
+            if (recorded >= minCalls && failures * 100 >= failureRate * recorded) open();
+        }
+    }
+
+    private void record(boolean failed) {
+        if (recorded == windowSize) {
+            if (outcomes[position]) --failures;
+        } else {
+            ++recorded;
+        }
+
+        outcomes[position] = failed;
+        if (failed) ++failures;
+        position = (position + 1) % windowSize;
+    }
+
+    private void open() {
+        log.warn("{} circuit is open for {} millis", name, openMillis);
+        state = State.OPEN;
+        openedAt = System.currentTimeMillis();
+        resetWindow();
+    }
+
+    private void resetWindow() {
+        recorded = 0;
+        position = 0;
+        failures = 0;
+    }
+}
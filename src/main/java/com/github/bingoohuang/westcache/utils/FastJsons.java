@@ -2,20 +2,30 @@ package com.github.bingoohuang.westcache.utils;
 
 import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.TypeReference;
+import com.alibaba.fastjson.parser.DefaultJSONParser;
+import com.alibaba.fastjson.parser.JSONReaderScanner;
 import com.alibaba.fastjson.parser.ParserConfig;
+import com.alibaba.fastjson.serializer.JSONSerializer;
 import com.alibaba.fastjson.serializer.SerializeConfig;
+import com.alibaba.fastjson.serializer.SerializeWriter;
 import com.alibaba.fastjson.serializer.SerializerFeature;
 import com.github.bingoohuang.utils.joda.JodaDateTimeDeserializer;
 import com.github.bingoohuang.utils.joda.JodaDateTimeSerializer;
 import com.github.bingoohuang.utils.type.Generic;
+import com.google.common.base.Charsets;
 import lombok.SneakyThrows;
 import lombok.experimental.UtilityClass;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.joda.time.DateTime;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.util.List;
 
 /**
@@ -33,7 +43,7 @@ public class FastJsons {
     }
 
     public static String json(Object obj, Method method) {
-        val arg0GenericType = Generic.fixMapToLinkedHashMap(method.getGenericReturnType());
+        val arg0GenericType = Generic.fixMapToLinkedHashMap(Methods.getValueType(method));
         if (arg0GenericType instanceof Class) {
             return JSON.toJSONString(obj, serializeConfig);
         }
@@ -52,6 +62,39 @@ public class FastJsons {
         return JSON.toJSONString(obj, serializeConfig);
     }
 
+    /**
+     * Serialize the object with the map entries sorted by their keys,
+     * so the equal values always have the same json, like for hashing.
+     *
+     * @param obj object to serialize.
+     * @return json.
+     */
+    public static String sortedJson(Object obj) {
+        return JSON.toJSONString(obj, serializeConfig, SerializerFeature.MapSortField);
+    }
+
+    /**
+     * Serialize the object directly to the writer, the serialized chars are
+     * flushed to the writer whenever the internal buffer is full,
+     * so no whole json string is built in memory.
+     *
+     * @param obj    object to serialize.
+     * @param writer target writer, which is not closed by this method.
+     */
+    public static void json(Object obj, Writer writer) {
+        val out = new SerializeWriter(writer);
+        try {
+            new JSONSerializer(out, serializeConfig).write(obj);
+            out.flush();
+        } finally {
+            out.close();
+        }
+    }
+
+    public static byte[] jsonBytes(Object obj) {
+        return JSON.toJSONBytes(obj, serializeConfig);
+    }
+
     @SuppressWarnings("unchecked")
     public static <T> T parse(String json) {
         return (T) JSON.parse(json, parseConfig);
@@ -62,9 +105,14 @@ public class FastJsons {
         return (T) JSON.parseObject(json, returnType, parseConfig);
     }
 
+    @SuppressWarnings("unchecked")
+    public static <T> T parse(String json, Type type) {
+        return (T) JSON.parseObject(json, type, parseConfig);
+    }
+
     @SneakyThrows @SuppressWarnings("unchecked")
     public static <T> T parse(String json, Method method, boolean silent) {
-        val arg0GenericType = Generic.fixMapToLinkedHashMap(method.getGenericReturnType());
+        val arg0GenericType = Generic.fixMapToLinkedHashMap(Methods.getValueType(method));
         try {
             return (T) JSON.parseObject(json, arg0GenericType, parseConfig);
         } catch (Exception ex) {
@@ -79,6 +127,53 @@ public class FastJsons {
     }
 
 
+    /**
+     * Parse json from the reader in a streaming way by the method's return type.
+     *
+     * @param reader json source, which is read in a buffer of limited size.
+     * @param method method whose generic return type is used.
+     * @param silent return null instead of throwing exception when parse failed.
+     * @param <T>    return type.
+     * @return parsed object.
+     */
+    @SneakyThrows
+    public static <T> T parse(Reader reader, Method method, boolean silent) {
+        val arg0GenericType = Generic.fixMapToLinkedHashMap(Methods.getValueType(method));
+        try {
+            return parse(reader, arg0GenericType);
+        } catch (Exception ex) {
+            log.error("parse json stream for method cache error, method:{}",
+                    method, ex);
+
+            if (!silent) throw ex;
+            return null;
+        }
+    }
+
+    @SneakyThrows @SuppressWarnings("unchecked")
+    public static <T> T parse(byte[] bytes, Method method, boolean silent) {
+        val arg0GenericType = Generic.fixMapToLinkedHashMap(Methods.getValueType(method));
+        val reader = new InputStreamReader(new ByteArrayInputStream(bytes), Charsets.UTF_8);
+        try {
+            return parse(reader, arg0GenericType);
+        } catch (Exception ex) {
+            if (arg0GenericType == String.class) return (T) new String(bytes, Charsets.UTF_8);
+            log.error("parse json bytes for method cache error, method:{}",
+                    method, ex);
+
+            if (!silent) throw ex;
+            return null;
+        }
+    }
+
+    private static <T> T parse(Reader reader, Type type) {
+        val parser = new DefaultJSONParser(new JSONReaderScanner(reader), parseConfig);
+        T value = parser.parseObject(type);
+        parser.handleResovleTask(value);
+        parser.close();
+        return value;
+    }
+
     @SuppressWarnings("unchecked")
     public static <T> T parse(String json, TypeReference typeReference) {
         return (T) JSON.parseObject(json, typeReference.getType(), parseConfig);
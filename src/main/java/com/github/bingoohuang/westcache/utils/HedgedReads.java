@@ -0,0 +1,219 @@
+package com.github.bingoohuang.westcache.utils;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.Getter;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import redis.clients.jedis.JedisCommands;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hedged reads of a primary redis by its read replicas.
+ * <p>
+ * A read goes to the primary first. When the primary has not answered
+ * within the delay, which is the percentile of the latest primary
+ * latencies but at least minDelayMillis, the same read goes to the next
+ * replica, and the first answer wins. Every read earns budgetPercent/100
+ * hedge tokens up to maxBurst, and a hedge costs one token, so the hedged
+ * traffic is limited to budgetPercent of the reads. There is no hedging
+ * before minSamples latencies are recorded.
+ * <p>
+ * A replica may lag behind the primary, so a hedged read can return a value
+ * older than the primary has, or miss a key just set. That is the trade-off
+ * of hedging: the tail latency is cut at the cost of reading the replicas'
+ * staleness now and then. To narrow it, a key written or deleted by this
+ * node is not hedged within writeLagMillis, and the reads which need the
+ * latest value, like the double check after a redis lock, skip hedging.
+ * <p>
+ * The primary is read on the caller thread when no hedge could fire, that
+ * is before minSamples, without a hedge token, or for a key just written.
+ * Otherwise it is read on a background thread, because a blocking redis
+ * read on the caller thread could not be abandoned when the hedge wins.
+ *
+ * @author bingoohuang [bingoohuang@gmail.com] Created on 2026/10/19.
+ */
+@Slf4j
+public class HedgedReads {
+    public static final long MAX_RECENT_WRITES = 10000;
+    private static final ExecutorService executor = ThreadFactories.newTaskExecutor("westcache-hedged-read-");
+
+    @Getter private final int percentile;
+    @Getter private final long minDelayMillis;
+    @Getter private final int budgetPercent;
+    @Getter private final int maxBurst;
+    @Getter private final int window;
+    @Getter private final int minSamples;
+    @Getter private final long writeLagMillis;
+
+    private volatile LatencyHistogram current = new LatencyHistogram();
+    private volatile LatencyHistogram previous;
+    private double tokens;
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicLong hedgedTimes = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+    private final Cache<String, Boolean> recentWrites;
+
+    public HedgedReads(int percentile, long minDelayMillis, int budgetPercent,
+                       int maxBurst, int window, int minSamples, long writeLagMillis) {
+        this.percentile = percentile;
+        this.minDelayMillis = minDelayMillis;
+        this.budgetPercent = budgetPercent;
+        this.maxBurst = maxBurst;
+        this.window = window;
+        this.minSamples = minSamples;
+        this.writeLagMillis = writeLagMillis;
+        this.recentWrites = CacheBuilder.newBuilder().maximumSize(MAX_RECENT_WRITES)
+                .expireAfterWrite(writeLagMillis, TimeUnit.MILLISECONDS).build();
+    }
+
+    /**
+     * Create the hedged reads by the settings like
+     * "percentile:95;minDelayMillis:1;budgetPercent:5;maxBurst:10;window:1000;minSamples:100;writeLagMillis:1000",
+     * whose missing ones are defaulted to the values above.
+     *
+     * @param settings settings map.
+     * @return hedged reads.
+     */
+    public static HedgedReads create(Map<String, String> settings) {
+        return new HedgedReads(
+                (int) setting(settings, "percentile", 95),
+                setting(settings, "minDelayMillis", 1),
+                (int) setting(settings, "budgetPercent", 5),
+                (int) setting(settings, "maxBurst", 10),
+                (int) setting(settings, "window", 1000),
+                (int) setting(settings, "minSamples", 100),
+                setting(settings, "writeLagMillis", 1000));
+    }
+
+    private static long setting(Map<String, String> settings, String key, long defaultValue) {
+        val value = settings.get(key);
+        return value == null ? defaultValue : Long.parseLong(value);
+    }
+
+    /**
+     * Get the value of the key from the primary, hedged by the replicas.
+     *
+     * @param primary  primary redis.
+     * @param replicas read replicas.
+     * @param key      redis key.
+     * @return value.
+     */
+    @SneakyThrows
+    public String get(JedisCommands primary, List<JedisCommands> replicas, String key) {
+        if (replicas.isEmpty()) return primary.get(key);
+
+        earnToken();
+        val delay = getDelayMillis();
+        if (delay < 0 || !hasToken() || recentWrites.getIfPresent(key) != null) {
+            return timedGet(primary, key);
+        }
+
+        val completion = new ExecutorCompletionService<String>(executor);
+        val primaryFuture = completion.submit(() -> timedGet(primary, key));
+        val first = completion.poll(delay, TimeUnit.MILLISECONDS);
+        if (first != null) return getResult(first);
+        if (!tryHedge()) return getResult(primaryFuture);
+
+        val replica = replicas.get(Math.abs(next.getAndIncrement() % replicas.size()));
+        log.debug("primary redis read of {} is slower than {} millis, hedge to a replica", key, delay);
+        val hedgeFuture = completion.submit(() -> replica.get(key));
+
+        val winner = completion.take();
+        try {
+            val value = getResult(winner);
+            if (winner == hedgeFuture) hedgeWins.incrementAndGet();
+            return value;
+        } catch (Exception ex) {
+            log.warn("hedged read of {} failed, wait for the other one", key, ex);
+            val other = completion.take();
+            val value = getResult(other);
+            if (other == hedgeFuture) hedgeWins.incrementAndGet();
+            return value;
+        }
+    }
+
+    /**
+     * Mark the key written or deleted on the primary by this node,
+     * so it is not hedged to the lagging replicas within writeLagMillis.
+     *
+     * @param key redis key.
+     */
+    public void written(String key) {
+        if (writeLagMillis > 0) recentWrites.put(key, Boolean.TRUE);
+    }
+
+    /**
+     * Get the current hedge delay.
+     *
+     * @return delay millis, or -1 when there are not enough latency samples.
+     */
+    public long getDelayMillis() {
+        val prev = previous;
+        val histogram = prev != null ? prev : current;
+        if (histogram.getCount() < minSamples) return -1;
+
+        return Math.max(minDelayMillis, histogram.getPercentile(percentile));
+    }
+
+    public long getHedgedTimes() {
+        return hedgedTimes.get();
+    }
+
+    public long getHedgeWins() {
+        return hedgeWins.get();
+    }
+
+    private String timedGet(JedisCommands primary, String key) {
+        val start = System.currentTimeMillis();
+        try {
+            return primary.get(key);
+        } finally {
+            record(System.currentTimeMillis() - start);
+        }
+    }
+
+    private void record(long millis) {
+        val histogram = current;
+        histogram.record(millis);
+        if (histogram.getCount() < window) return;
+
+        synchronized (this) {
+            if (current != histogram) return;
+
+            previous = histogram;
+            current = new LatencyHistogram();
+        }
+    }
+
+    private synchronized void earnToken() {
+        tokens = Math.min(maxBurst, tokens + budgetPercent / 100.0);
+    }
+
+    private synchronized boolean hasToken() {
+        return tokens >= 1;
+    }
+
+    private synchronized boolean tryHedge() {
+        if (tokens < 1) return false;
+
+        tokens -= 1;
+        hedgedTimes.incrementAndGet();
+        return true;
+    }
+
+    @SneakyThrows
+    private static String getResult(Future<String> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            throw ex.getCause();
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.github.bingoohuang.utils.proxy.Cglibs;
 import lombok.experimental.UtilityClass;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
+import org.apache.commons.lang3.StringUtils;
 
 import java.util.regex.PatternSyntaxException;
 
@@ -45,6 +46,30 @@ public class Keys {
         return nextChar == '.' || nextChar == '_';
     }
 
+    /**
+     * Get the method part of the cache key, without the args,
+     * like PengService.getCities for PengService.getCities_11.
+     *
+     * @param cacheKey cache key.
+     * @return method key.
+     */
+    public static String methodKey(String cacheKey) {
+        return StringUtils.substringBefore(cacheKey, "_");
+    }
+
+    /**
+     * Get the namespace of the cache key, which is the part before
+     * the method name, like PengService for PengService.getCities_11.
+     *
+     * @param cacheKey cache key.
+     * @return namespace.
+     */
+    public static String namespace(String cacheKey) {
+        val methodKey = methodKey(cacheKey);
+        val pos = methodKey.lastIndexOf('.');
+        return pos < 0 ? methodKey : methodKey.substring(0, pos);
+    }
+
     public static String createKeyMainPart(String methodName,
                                            Object bean,
                                            boolean removePackage) {
@@ -0,0 +1,91 @@
+package com.github.bingoohuang.westcache.utils;
+
+import lombok.val;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of latencies in millis with fixed buckets.
+ * <p>
+ * The percentiles are estimated by the upper bound of the bucket
+ * where they fall, which is precise enough to tune the intervals.
+ *
+ * @author bingoohuang [bingoohuang@gmail.com] Created on 2026/10/19.
+ */
+public class LatencyHistogram {
+    public static final long[] BOUNDS = {1, 2, 5, 10, 20, 50, 100, 200, 500,
+            1000, 2000, 5000, 10000, 30000, 60000, 120000, 300000, Long.MAX_VALUE};
+
+    private final AtomicLongArray counts = new AtomicLongArray(BOUNDS.length);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long millis) {
+        val value = Math.max(0, millis);
+        counts.incrementAndGet(bucketOf(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) current = max.get();
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        val n = count.get();
+        return n == 0 ? 0 : (double) sum.get() / n;
+    }
+
+    /**
+     * Estimate the percentile.
+     *
+     * @param percentile percentile between 0 and 100.
+     * @return the upper bound of the bucket of the percentile, capped by max.
+     */
+    public long getPercentile(double percentile) {
+        val n = count.get();
+        if (n == 0) return 0;
+
+        val rank = (long) Math.ceil(n * percentile / 100);
+        long accumulated = 0;
+        for (int i = 0; i < BOUNDS.length; ++i) {
+            accumulated += counts.get(i);
+            if (accumulated >= rank) return Math.min(BOUNDS[i], max.get());
+        }
+        return max.get();
+    }
+
+    /**
+     * Get the counts of buckets, which are in the order of BOUNDS.
+     *
+     * @return counts of buckets.
+     */
+    public long[] getBucketCounts() {
+        val result = new long[BOUNDS.length];
+        for (int i = 0; i < BOUNDS.length; ++i) {
+            result[i] = counts.get(i);
+        }
+        return result;
+    }
+
+    private static int bucketOf(long millis) {
+        int i = 0;
+        while (millis > BOUNDS[i]) ++i;
+        return i;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d, mean=%.1fms, p50=%dms, p99=%dms, max=%dms",
+                getCount(), getMean(), getPercentile(50), getPercentile(99), getMax());
+    }
+}
@@ -0,0 +1,126 @@
+package com.github.bingoohuang.westcache.utils;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limit the concurrent loaders of a cache namespace, like PengService
+ * for PengService.getCities_11, to protect the data sources from the
+ * miss storms after a flush.
+ * <p>
+ * The concurrency is set by specs like "loaderConcurrency=10" or by
+ * WestCacheConfig.loaderConcurrency(), and 0 means unlimited. A loader
+ * beyond the concurrency waits in a fair queue for loaderWaitMillis, and
+ * when the wait is timeout, the bulkhead is saturated, which serves the
+ * stale value or snapshot with "loaderSaturated=stale", or fails fast.
+ *
+ * @author bingoohuang [bingoohuang@gmail.com] Created on 2026/10/19.
+ */
+@Slf4j
+public class LoaderBulkhead {
+    public static final String CONCURRENCY = "loaderConcurrency";
+    public static final String WAIT_MILLIS = "loaderWaitMillis";
+    public static final String SATURATED = "loaderSaturated";
+    public static final String STALE = "stale";
+
+    private static final ConcurrentMap<String, LoaderBulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    @Getter private final String namespace;
+    @Getter private final int concurrency;
+    @Getter private final long waitMillis;
+    private final Semaphore semaphore;
+    private final AtomicLong saturatedTimes = new AtomicLong();
+
+    public LoaderBulkhead(String namespace, int concurrency, long waitMillis) {
+        this.namespace = namespace;
+        this.concurrency = concurrency;
+        this.waitMillis = waitMillis;
+        this.semaphore = new Semaphore(concurrency, true);
+    }
+
+    /**
+     * Get the bulkhead of the namespace of the cache key, which is created
+     * by the settings of the first option of the namespace.
+     *
+     * @param option   westcache settings.
+     * @param cacheKey cache key.
+     * @return bulkhead or null if the concurrency is unlimited.
+     */
+    public static LoaderBulkhead of(WestCacheOption option, String cacheKey) {
+        val concurrency = concurrency(option);
+        if (concurrency <= 0) return null;
+
+        return bulkheads.computeIfAbsent(Keys.namespace(cacheKey),
+                ns -> new LoaderBulkhead(ns, concurrency, waitMillis(option)));
+    }
+
+    public static boolean isStaleOnSaturated(WestCacheOption option) {
+        return STALE.equals(option.getSpecs().get(SATURATED));
+    }
+
+    public static Map<String, LoaderBulkhead> getBulkheads() {
+        return Collections.unmodifiableMap(bulkheads);
+    }
+
+    public static void reset() {
+        bulkheads.clear();
+    }
+
+    private static int concurrency(WestCacheOption option) {
+        val concurrency = option.getSpecs().get(CONCURRENCY);
+        return StringUtils.isBlank(concurrency)
+                ? option.getConfig().loaderConcurrency()
+                : Integer.parseInt(concurrency);
+    }
+
+    private static long waitMillis(WestCacheOption option) {
+        val waitMillis = option.getSpecs().get(WAIT_MILLIS);
+        return StringUtils.isBlank(waitMillis)
+                ? option.getConfig().loaderWaitMillis()
+                : Long.parseLong(waitMillis);
+    }
+
+    /**
+     * Acquire a permit of loading, waiting at most waitMillis.
+     *
+     * @return false if saturated.
+     */
+    public boolean tryAcquire() {
+        try {
+            if (semaphore.tryAcquire(waitMillis, TimeUnit.MILLISECONDS)) return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        saturatedTimes.incrementAndGet();
+        log.warn("loader bulkhead of {} is saturated with {} loaders and {} waiting",
+                namespace, concurrency, semaphore.getQueueLength());
+        return false;
+    }
+
+    public void release() {
+        semaphore.release();
+    }
+
+    public int getActive() {
+        return concurrency - semaphore.availablePermits();
+    }
+
+    public int getWaiting() {
+        return semaphore.getQueueLength();
+    }
+
+    public long getSaturatedTimes() {
+        return saturatedTimes.get();
+    }
+}
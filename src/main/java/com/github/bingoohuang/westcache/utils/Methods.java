@@ -6,8 +6,12 @@ import lombok.val;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
 import java.util.LinkedHashSet;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 public class Methods {
@@ -22,6 +26,36 @@ public class Methods {
         }
     }
 
+    /**
+     * Tell whether the method returns a Future, CompletionStage or CompletableFuture,
+     * which can be returned by a CompletableFuture.
+     *
+     * @param method method.
+     * @return true if returns a future.
+     */
+    public static boolean isFutureReturn(Method method) {
+        val returnType = method.getReturnType();
+        return returnType != Object.class && returnType.isAssignableFrom(CompletableFuture.class);
+    }
+
+    /**
+     * Get the type of the cached value of the method,
+     * which is the value type of the future for a future returned method.
+     *
+     * @param method method.
+     * @return type of cached value.
+     */
+    public static Type getValueType(Method method) {
+        val genericType = method.getGenericReturnType();
+        if (!isFutureReturn(method)) return genericType;
+
+        if (!(genericType instanceof ParameterizedType)) return Object.class;
+
+        val valueType = ((ParameterizedType) genericType).getActualTypeArguments()[0];
+        return valueType instanceof WildcardType
+                ? ((WildcardType) valueType).getUpperBounds()[0] : valueType;
+    }
+
     /*
      * Gets an array of all methods in a class hierarchy walking up to parent classes
      */
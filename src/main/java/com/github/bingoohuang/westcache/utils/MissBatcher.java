@@ -0,0 +1,130 @@
+package com.github.bingoohuang.westcache.utils;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Combine the loads of different keys within a window into one bulk load.
+ * <p>
+ * The first key submitted opens the window, and the keys are loaded in bulk
+ * when the window closes after maxWaitMillis, or when maxItems keys are
+ * pending. The same key submitted twice in a window shares one future.
+ * A key missing from the bulk result completes with null, and a failed bulk
+ * load fails all the futures of the batch. The result keys not equal to any
+ * requested key, like Long keys for Integer ones, are logged and counted.
+ *
+ * @author bingoohuang [bingoohuang@gmail.com] Created on 2026/10/19.
+ */
+@Slf4j
+public class MissBatcher {
+    private static final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("westcache-batcher-timer-%d").setDaemon(true).build());
+    private static final ExecutorService loaders = ThreadFactories.newTaskExecutor("westcache-batcher-");
+
+    @Getter private final int maxItems;
+    @Getter private final long maxWaitMillis;
+    private final Function<List<Object>, Map<Object, Object>> bulkLoader;
+
+    private Map<Object, CompletableFuture<Object>> pending = Maps.newLinkedHashMap();
+    private ScheduledFuture<?> scheduled;
+    private final AtomicLong unmatchedKeys = new AtomicLong();
+
+    public MissBatcher(int maxItems, long maxWaitMillis,
+                       Function<List<Object>, Map<Object, Object>> bulkLoader) {
+        this.maxItems = maxItems;
+        this.maxWaitMillis = maxWaitMillis;
+        this.bulkLoader = bulkLoader;
+    }
+
+    public CompletableFuture<Object> submit(Object key) {
+        Map<Object, CompletableFuture<Object>> full = null;
+        CompletableFuture<Object> future;
+        synchronized (this) {
+            future = pending.get(key);
+            if (future != null) return future;
+
+            future = new CompletableFuture<>();
+            pending.put(key, future);
+            if (pending.size() >= maxItems) {
+                full = takePending();
+            } else if (scheduled == null) {
+                scheduled = timer.schedule(this::flush, maxWaitMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        if (full != null) load(full);
+        return future;
+    }
+
+    /**
+     * Load the pending keys now.
+     */
+    public void flush() {
+        Map<Object, CompletableFuture<Object>> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) return;
+            batch = takePending();
+        }
+
+        load(batch);
+    }
+
+    private Map<Object, CompletableFuture<Object>> takePending() {
+        val batch = pending;
+        pending = Maps.newLinkedHashMap();
+        if (scheduled != null) scheduled.cancel(false);
+        scheduled = null;
+        return batch;
+    }
+
+    private void load(final Map<Object, CompletableFuture<Object>> batch) {
+        loaders.execute(() -> {
+            try {
+                List<Object> keys = Lists.newArrayList(batch.keySet());
+                log.debug("bulk load {} keys", keys.size());
+                val result = bulkLoader.apply(keys);
+                checkUnmatched(batch, result);
+                for (val entry : batch.entrySet()) {
+                    entry.getValue().complete(result == null ? null : result.get(entry.getKey()));
+                }
+            } catch (Throwable ex) {
+                log.warn("bulk load error", ex);
+                for (val future : batch.values()) {
+                    future.completeExceptionally(ex);
+                }
+            }
+        });
+    }
+
+    private void checkUnmatched(Map<Object, CompletableFuture<Object>> batch,
+                                Map<Object, Object> result) {
+        if (result == null) return;
+
+        for (val key : result.keySet()) {
+            if (batch.containsKey(key)) continue;
+
+            unmatchedKeys.incrementAndGet();
+            log.warn("bulk result key {} of {} is not requested, check its type against the requested keys",
+                    key, key == null ? null : key.getClass().getName());
+        }
+    }
+
+    /**
+     * Get the number of the bulk result keys not equal to any requested key.
+     *
+     * @return number of unmatched keys.
+     */
+    public long getUnmatchedKeys() {
+        return unmatchedKeys.get();
+    }
+}
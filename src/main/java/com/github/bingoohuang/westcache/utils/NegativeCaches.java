@@ -0,0 +1,103 @@
+package com.github.bingoohuang.westcache.utils;
+
+import com.github.bingoohuang.westcache.base.WestCache;
+import com.github.bingoohuang.westcache.base.WestCacheItem;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import lombok.AllArgsConstructor;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.bingoohuang.utils.time.Durations.parse;
+
+/**
+ * Negative caching of the absent results, by specs like
+ * "negativeTtl=30s,negativeMaxSize=10000".
+ * <p>
+ * An absent result expires after negativeTtl instead of the lifetime of
+ * the real values, and the absent results of a cache namespace share a
+ * separate budget of negativeMaxSize keys, beyond which the least recently
+ * cached ones are invalidated, so the lookups of non-existent ids never
+ * push the real values out.
+ *
+ * @author bingoohuang [bingoohuang@gmail.com] Created on 2026/10/19.
+ */
+@Slf4j @UtilityClass
+public class NegativeCaches {
+    public static final String NEGATIVE_TTL = "negativeTtl";
+    public static final String NEGATIVE_MAX_SIZE = "negativeMaxSize";
+    public static final long DEFAULT_MAX_SIZE = 10000;
+
+    @AllArgsConstructor
+    private static class Tracked {
+        final WestCacheOption option;
+        final WestCache westCache;
+    }
+
+    private final ConcurrentMap<String, Cache<String, Tracked>> budgets = new ConcurrentHashMap<>();
+
+    public String parseNegativeTtl(WestCacheOption option) {
+        return option == null ? null : option.getSpecs().get(NEGATIVE_TTL);
+    }
+
+    public boolean isNegativeCached(WestCacheOption option) {
+        return StringUtils.isNotBlank(parseNegativeTtl(option));
+    }
+
+    /**
+     * Track the absent result of the cache key in the budget of its namespace,
+     * or untrack the key when its result is present again.
+     *
+     * @param option    westcache settings.
+     * @param cacheKey  cache key.
+     * @param westCache cache of the item.
+     * @param item      cache item loaded.
+     */
+    public void track(WestCacheOption option, String cacheKey,
+                      WestCache westCache, WestCacheItem item) {
+        if (item == null || !isNegativeCached(option)) return;
+
+        val budget = budget(option, cacheKey);
+        if (item.isPresent()) budget.invalidate(cacheKey);
+        else budget.put(cacheKey, new Tracked(option, westCache));
+    }
+
+    public long getSize(String namespace) {
+        val budget = budgets.get(namespace);
+        return budget == null ? 0 : budget.size();
+    }
+
+    public void reset() {
+        budgets.clear();
+    }
+
+    private Cache<String, Tracked> budget(WestCacheOption option, String cacheKey) {
+        return budgets.computeIfAbsent(Keys.namespace(cacheKey), ns -> {
+            val maxSize = option.getSpecs().get(NEGATIVE_MAX_SIZE);
+            val ttl = parse(NEGATIVE_TTL, parseNegativeTtl(option));
+            return CacheBuilder.newBuilder()
+                    .concurrencyLevel(1) // exact budget
+                    .maximumSize(StringUtils.isBlank(maxSize) ? DEFAULT_MAX_SIZE : Long.parseLong(maxSize))
+                    .expireAfterWrite(ttl, TimeUnit.SECONDS)
+                    .<String, Tracked>removalListener(n -> {
+                        if (n.getCause() == RemovalCause.SIZE) evict(n.getKey(), n.getValue());
+                    })
+                    .build();
+        });
+    }
+
+    private void evict(String cacheKey, Tracked tracked) {
+        val item = tracked.westCache.getIfPresent(tracked.option, cacheKey);
+        if (item == null || item.isPresent()) return;
+
+        log.debug("evict absent result of cache key {} beyond the negative budget", cacheKey);
+        tracked.westCache.invalidate(tracked.option, cacheKey, "");
+    }
+}
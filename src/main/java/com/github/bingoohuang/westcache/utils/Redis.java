@@ -5,6 +5,9 @@ import com.github.bingoohuang.utils.redis.JedisProxy;
 import com.github.bingoohuang.westcache.base.WestCacheItem;
 import com.github.bingoohuang.westcache.spring.SpringAppContext;
 import com.google.common.base.Optional;
+import com.google.common.base.Splitter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import lombok.experimental.UtilityClass;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
@@ -13,13 +16,29 @@ import redis.clients.jedis.JedisCommands;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPoolConfig;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * @author bingoohuang [bingoohuang@gmail.com] Created on 2017/1/3.
  */
 @Slf4j @UtilityClass
 public class Redis {
     public static final String PREFIX = "westcache:";
+    /**
+     * The encoding of a cached absent result, distinct from a missing key.
+     */
+    public static final String NULL_VALUE = "null";
+    public static final String REDIS_BREAKER = "redisBreaker";
+    public static final String REDIS_REPLICAS = "redisReplicas";
+    public static final String REDIS_HEDGE = "redisHedge";
     private static JedisCommands jedis = createJedisCommands("127.0.0.1", 6379, 10);
+    private static List<JedisCommands> replicas = Collections.emptyList();
+    private static final Cache<JedisCommands, CircuitBreaker> breakers
+            = CacheBuilder.newBuilder().weakKeys().build();
+    private static final Cache<JedisCommands, HedgedReads> hedgedReads
+            = CacheBuilder.newBuilder().weakKeys().build();
 
     public static void setJedis(JedisCommands settedJedis) {
         jedis = settedJedis;
@@ -29,6 +48,86 @@ public class Redis {
         return jedis;
     }
 
+    /**
+     * Set the read replicas of the default jedis.
+     *
+     * @param settedReplicas read replicas.
+     */
+    public static void setReplicas(List<JedisCommands> settedReplicas) {
+        replicas = settedReplicas;
+    }
+
+    /**
+     * Get the read replicas of the redis, which are the spring beans of
+     * the specs redisReplicas like "redisReplicas=replica1;replica2",
+     * or the replicas set for the default jedis.
+     *
+     * @param option westcache settings.
+     * @param redis  primary redis.
+     * @return read replicas, empty when none.
+     */
+    public static List<JedisCommands> getReplicas(WestCacheOption option, JedisCommands redis) {
+        val replicaBeans = option.getSpecs().get(REDIS_REPLICAS);
+        if (Envs.HAS_SPRING && StringUtils.isNotBlank(replicaBeans)) {
+            val beans = new ArrayList<JedisCommands>();
+            for (val beanName : Splitter.on(';').trimResults().omitEmptyStrings().split(replicaBeans)) {
+                JedisCommands bean = SpringAppContext.getBeanOrNull(beanName);
+                if (bean != null) beans.add(bean);
+            }
+            return beans;
+        }
+
+        return redis == jedis ? replicas : Collections.<JedisCommands>emptyList();
+    }
+
+    /**
+     * Get the hedged reads of the redis, which are created by the specs
+     * redisHedge of the first option, like "percentile:95;budgetPercent:5".
+     *
+     * @param option westcache settings.
+     * @param redis  primary redis.
+     * @return hedged reads.
+     */
+    public static HedgedReads getHedgedReads(WestCacheOption option, JedisCommands redis) {
+        return Guavas.cacheGet(hedgedReads, redis, () ->
+                HedgedReads.create(Specs.parseSubSpecs(option.getSpecs().get(REDIS_HEDGE))));
+    }
+
+    /**
+     * Get the value of the redis key, hedged by the read replicas
+     * when the specs redisHedge is set, like "redisHedge=true".
+     * <p>
+     * A hedged read may be answered by a replica lagging behind the primary,
+     * see {@link HedgedReads} for the trade-off.
+     *
+     * @param option   westcache settings.
+     * @param redis    primary redis.
+     * @param redisKey redis key.
+     * @return value.
+     */
+    public static String get(WestCacheOption option, JedisCommands redis, String redisKey) {
+        if (option == null || StringUtils.isBlank(option.getSpecs().get(REDIS_HEDGE))) {
+            return redis.get(redisKey);
+        }
+
+        val replicas = getReplicas(option, redis);
+        if (replicas.isEmpty()) return redis.get(redisKey);
+
+        return getHedgedReads(option, redis).get(redis, replicas, redisKey);
+    }
+
+    /**
+     * Mark the redis key written or deleted by this node, so its reads are
+     * not hedged to the lagging replicas for a while.
+     *
+     * @param redis    primary redis.
+     * @param redisKey redis key.
+     */
+    public static void written(JedisCommands redis, String redisKey) {
+        val hedged = hedgedReads.getIfPresent(redis);
+        if (hedged != null) hedged.written(redisKey);
+    }
+
     public static JedisCommands getRedis(WestCacheOption option) {
         String redisBean = option.getSpecs().get("redisBean");
 
@@ -45,6 +144,19 @@ public class Redis {
         return jedis;
     }
 
+    /**
+     * Get the circuit breaker of the redis, which is created by the specs
+     * redisBreaker of the first option, like "failureRate:50;openMillis:5000".
+     *
+     * @param option westcache settings.
+     * @param redis  redis.
+     * @return circuit breaker.
+     */
+    public static CircuitBreaker getBreaker(WestCacheOption option, JedisCommands redis) {
+        return Guavas.cacheGet(breakers, redis, () -> CircuitBreaker.create("redis",
+                Specs.parseSubSpecs(option.getSpecs().get(REDIS_BREAKER))));
+    }
+
     public static JedisCommands createJedisCommands(
             String host, int port, int maxTotal) {
         val poolConfig = new JedisPoolConfig();
@@ -69,14 +181,30 @@ public class Redis {
     public static WestCacheItem getWestCacheItem(WestCacheOption option,
                                                  JedisCommands redis,
                                                  String redisKey) {
-        val jsonValue = redis.get(redisKey);
+        return getWestCacheItem(option, redis, redisKey, true);
+    }
+
+    /**
+     * Get the cached item of the redis key.
+     *
+     * @param option   westcache settings.
+     * @param redis    primary redis.
+     * @param redisKey redis key.
+     * @param hedged   false to read the primary only, when the latest value is needed.
+     * @return item, or null for a missing key.
+     */
+    public static WestCacheItem getWestCacheItem(WestCacheOption option,
+                                                 JedisCommands redis,
+                                                 String redisKey,
+                                                 boolean hedged) {
+        val jsonValue = hedged ? get(option, redis, redisKey) : redis.get(redisKey);
         if (jsonValue == null) return null;
+        if (NULL_VALUE.equals(jsonValue)) return new WestCacheItem(Optional.absent(), option);
 
         val value = FastJsons.parse(jsonValue, option.getMethod(), true);
-        if (value == null && !"null".equals(jsonValue)) return null;
+        if (value == null) return null;
 
-        val optional = Optional.fromNullable(value);
-        return new WestCacheItem(optional, option);
+        return new WestCacheItem(Optional.of(value), option);
     }
 
     public static String expirePut(WestCacheOption option,
@@ -85,8 +213,10 @@ public class Redis {
                                    WestCacheItem item) {
         val duration = item.getDurationSeconds();
 
-        val json = FastJsons.json(item.orNull(), option.getMethod());
+        val json = item.isPresent()
+                ? FastJsons.json(item.orNull(), option.getMethod()) : NULL_VALUE;
         val result = redis.set(redisKey, json);
+        written(redis, redisKey);
         if (duration > 0) {
             log.info("redis set {}={} in ttl {} seconds", redisKey, json, duration);
             redis.expire(redisKey, (int) duration);
@@ -1,6 +1,11 @@
 package com.github.bingoohuang.westcache.utils;
 
+import com.google.common.base.Charsets;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
 import lombok.experimental.UtilityClass;
+import lombok.val;
 
 import java.io.File;
 
@@ -11,11 +16,103 @@ import java.io.File;
 public class Snapshots {
     static final String USER_HOME = System.getProperty("user.home");
     public static final String EXTENSION = ".westcache";
+    public static final String DELETING_EXTENSION = ".deleting";
+    public static final String TEMP_EXTENSION = ".tmp";
+    public static final String PREV_GENERATION = ".prev";
     public static final File CACHE_HOME = new File(USER_HOME, EXTENSION);
+    public static final long MAX_TOUCHED = 100000;
+    /**
+     * The access is persisted as the mtime of the snapshot file at most once in the duration.
+     */
+    public static final long TOUCH_PERSIST_MILLIS = 60000;
 
+    /**
+     * The last access times of the snapshot files read in this process,
+     * because the atime is not updated on noatime or relatime mounts.
+     */
+    private static final Cache<String, Long> touches = CacheBuilder.newBuilder()
+            .maximumSize(MAX_TOUCHED).build();
+
+    /**
+     * Get the snapshot file of the cache key.
+     * The snapshot files are sharded into 256 sub directories named by the
+     * hash of the cache key, like ~/.westcache/3f/MyService.getCities.westcache.
+     * The legacy flat snapshot file will be moved into its shard directory.
+     *
+     * @param cacheKey cache key.
+     * @return snapshot file.
+     */
     public static File getSnapshotFile(String cacheKey) {
-        CACHE_HOME.mkdirs();
-        return new File(CACHE_HOME, cacheKey + EXTENSION);
+        val shardDir = getShardDir(cacheKey);
+        shardDir.mkdirs();
+
+        val fileName = cacheKey + EXTENSION;
+        val snapshotFile = new File(shardDir, fileName);
+        val legacyFile = new File(CACHE_HOME, fileName);
+        if (legacyFile.isFile() && !snapshotFile.exists()) {
+            legacyFile.renameTo(snapshotFile);
+        }
+
+        return snapshotFile;
+    }
+
+    /**
+     * Get the previous generation file of the snapshot file,
+     * which is kept as the fallback when the current one is corrupted.
+     *
+     * @param snapshotFile snapshot file.
+     * @return previous generation snapshot file.
+     */
+    public static File getPrevSnapshotFile(File snapshotFile) {
+        val cacheKey = parseCacheKey(snapshotFile);
+        return new File(snapshotFile.getParentFile(), cacheKey + PREV_GENERATION + EXTENSION);
+    }
+
+    public static File getShardDir(String cacheKey) {
+        val hash = Hashing.murmur3_32().hashString(cacheKey, Charsets.UTF_8).asInt();
+        return new File(CACHE_HOME, String.format("%02x", hash & 0xff));
     }
 
+    /**
+     * Parse the cache key from the snapshot file name.
+     *
+     * @param snapshotFile snapshot file.
+     * @return cache key or null if it is not a snapshot file.
+     */
+    public static String parseCacheKey(File snapshotFile) {
+        val name = snapshotFile.getName();
+        if (!name.endsWith(EXTENSION)) return null;
+
+        return name.substring(0, name.length() - EXTENSION.length());
+    }
+
+    /**
+     * Record the access of the snapshot file. The access is also persisted
+     * as the mtime of the file now and then, so the idle time of the
+     * snapshot survives the restarts of the process.
+     *
+     * @param snapshotFile snapshot file.
+     */
+    public static void touch(File snapshotFile) {
+        val now = System.currentTimeMillis();
+        touches.put(snapshotFile.getAbsolutePath(), now);
+        if (now - snapshotFile.lastModified() >= TOUCH_PERSIST_MILLIS) {
+            snapshotFile.setLastModified(now);
+        }
+    }
+
+    /**
+     * Get the last access time of the snapshot file in this process.
+     *
+     * @param snapshotFile snapshot file.
+     * @return last access millis, or 0 if not accessed.
+     */
+    public static long getLastTouched(File snapshotFile) {
+        val touched = touches.getIfPresent(snapshotFile.getAbsolutePath());
+        return touched == null ? 0 : touched;
+    }
+
+    public static void untouch(File snapshotFile) {
+        touches.invalidate(snapshotFile.getAbsolutePath());
+    }
 }
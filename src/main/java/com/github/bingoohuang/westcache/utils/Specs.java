@@ -13,10 +13,25 @@ import java.util.Map;
 @UtilityClass
 public class Specs {
     private static final Splitter.MapSplitter SPECS_SPLITTER = Splitter.on(',').withKeyValueSeparator('=');
+    private static final Splitter.MapSplitter SUB_SPECS_SPLITTER = Splitter.on(';')
+            .trimResults().omitEmptyStrings().withKeyValueSeparator(':');
 
     public static Map<String, String> parseSpecs(String specs) {
         if (StringUtils.isEmpty(specs)) return Maps.newHashMap();
 
         return Maps.newHashMap(SPECS_SPLITTER.split(specs));
     }
+
+    /**
+     * Parse the settings inside a spec value like "maxItems:50;maxWaitMillis:5",
+     * because the specs themselves are separated by ',' and '='.
+     *
+     * @param value spec value.
+     * @return settings map, empty when the value has no settings.
+     */
+    public static Map<String, String> parseSubSpecs(String value) {
+        if (StringUtils.isBlank(value) || !value.contains(":")) return Maps.newHashMap();
+
+        return Maps.newHashMap(SUB_SPECS_SPLITTER.split(value));
+    }
 }
@@ -0,0 +1,239 @@
+package com.github.bingoohuang.westcache.utils;
+
+import com.github.bingoohuang.westcache.base.WestCacheException;
+import com.github.bingoohuang.westcache.base.WestCacheItem;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Maps;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.SneakyThrows;
+import lombok.Value;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.github.bingoohuang.utils.time.Durations.parse;
+
+/**
+ * Serve the stale values when the loaders fail, by specs like
+ * "staleOnError=10m,loaderTimeoutMillis=3000".
+ * <p>
+ * With staleOnError, the last loaded value of a cache key is retained,
+ * and when it is dropped by a flush or expiration, it is kept as the stale
+ * fallback for the grace period. The loader is timeout after
+ * loaderTimeoutMillis, and on the timeout or an exception, the stale value,
+ * or the snapshot, is served once instead of failing the caller, and it is
+ * not written to the cache, so the next get tries to load again.
+ * <p>
+ * The retained values are bounded by RETAINED_MAX_SIZE per lifetime, and
+ * expire after the expireAfterWrite of the specs plus the grace period.
+ * <p>
+ * With loaderTimeoutMillis, the loader runs in another thread, so the
+ * ThreadLocals of the caller, like transactions or request contexts,
+ * are not visible to the loader.
+ *
+ * @author bingoohuang [bingoohuang@gmail.com] Created on 2026/10/19.
+ */
+@Slf4j @UtilityClass
+public class StaleFallbacks {
+    public static final String STALE_ON_ERROR = "staleOnError";
+    public static final String LOADER_TIMEOUT_MILLIS = "loaderTimeoutMillis";
+    public static final String EXPIRE_AFTER_WRITE = "expireAfterWrite";
+
+    public enum Reason {ERROR, TIMEOUT, SATURATED}
+
+    @Value
+    public static class MetricKey {
+        String namespace;
+        Reason reason;
+    }
+
+    public static class LoaderTimeoutException extends WestCacheException {
+        public LoaderTimeoutException(String msg) {
+            super(msg);
+        }
+    }
+
+    /**
+     * Thrown by the loader to serve the stale item to the caller
+     * without writing it to the cache.
+     */
+    public static class StaleServedException extends WestCacheException {
+        @Getter private final transient WestCacheItem item;
+
+        public StaleServedException(String cacheKey, WestCacheItem item) {
+            super("serve stale value of cache key " + cacheKey);
+            this.item = item;
+        }
+    }
+
+    @AllArgsConstructor
+    private static class Retained {
+        final WestCacheItem item;
+        volatile long droppedAt;
+    }
+
+    public static final int RETAINED_MAX_SIZE = 100000;
+
+    /**
+     * The retained values, by their lifetime in millis, 0 for unknown.
+     */
+    private final ConcurrentMap<Long, Cache<String, Retained>> retained = new ConcurrentHashMap<>();
+    private final ConcurrentMap<MetricKey, AtomicLong> servedTimes = new ConcurrentHashMap<>();
+    private final ExecutorService loaders = ThreadFactories.newTaskExecutor("westcache-loader-");
+
+    public boolean isStaleOnError(WestCacheOption option) {
+        return graceMillis(option) > 0;
+    }
+
+    private long graceMillis(WestCacheOption option) {
+        val grace = option.getSpecs().get(STALE_ON_ERROR);
+        return StringUtils.isBlank(grace) ? 0 : parse(STALE_ON_ERROR, grace) * 1000L;
+    }
+
+    private Cache<String, Retained> retained(WestCacheOption option) {
+        val ttl = option.getSpecs().get(EXPIRE_AFTER_WRITE);
+        val ttlMillis = StringUtils.isBlank(ttl) ? 0 : parse(EXPIRE_AFTER_WRITE, ttl) * 1000L;
+        val lifetimeMillis = ttlMillis > 0 ? ttlMillis + graceMillis(option) : 0;
+        return retained.computeIfAbsent(lifetimeMillis, StaleFallbacks::newRetained);
+    }
+
+    private Cache<String, Retained> newRetained(long lifetimeMillis) {
+        val builder = CacheBuilder.newBuilder().maximumSize(RETAINED_MAX_SIZE);
+        if (lifetimeMillis > 0) builder.expireAfterWrite(lifetimeMillis, TimeUnit.MILLISECONDS);
+        return builder.build();
+    }
+
+    /**
+     * Call the loader, which is timeout after loaderTimeoutMillis if specified,
+     * in another thread without the ThreadLocals of the caller.
+     *
+     * @param option   westcache settings.
+     * @param cacheKey cache key.
+     * @param loader   loader of the cache value.
+     * @return cache item loaded.
+     */
+    @SneakyThrows
+    public WestCacheItem load(WestCacheOption option, String cacheKey,
+                              Callable<WestCacheItem> loader) {
+        dropped(option, cacheKey);
+
+        val timeoutMillis = loaderTimeoutMillis(option);
+        val item = timeoutMillis > 0 ? loadTimeout(cacheKey, loader, timeoutMillis) : loader.call();
+
+        if (item != null && isStaleOnError(option)) {
+            retained(option).put(cacheKey, new Retained(item, 0));
+        }
+        return item;
+    }
+
+    /**
+     * Get the loader timeout by specs loaderTimeoutMillis.
+     *
+     * @param option westcache settings.
+     * @return timeout millis, or 0 for no timeout.
+     */
+    public long loaderTimeoutMillis(WestCacheOption option) {
+        val timeout = option.getSpecs().get(LOADER_TIMEOUT_MILLIS);
+        return StringUtils.isBlank(timeout) ? 0 : Long.parseLong(timeout);
+    }
+
+    @SneakyThrows
+    private WestCacheItem loadTimeout(String cacheKey, Callable<WestCacheItem> loader,
+                                      long timeoutMillis) {
+        val future = loaders.submit(loader);
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            future.cancel(true);
+            throw new LoaderTimeoutException("load cache key " + cacheKey
+                    + " timeout in " + timeoutMillis + " millis");
+        } catch (ExecutionException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    /**
+     * The value retained is dropped from the cache when it is loaded again,
+     * and the grace period starts.
+     */
+    private void dropped(WestCacheOption option, String cacheKey) {
+        if (!isStaleOnError(option)) return;
+
+        val entry = retained(option).getIfPresent(cacheKey);
+        if (entry != null && entry.droppedAt == 0) {
+            entry.droppedAt = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Get the stale value retained within the grace period.
+     *
+     * @param option   westcache settings.
+     * @param cacheKey cache key.
+     * @return stale cache item or null.
+     */
+    public WestCacheItem getRetained(WestCacheOption option, String cacheKey) {
+        val cache = retained(option);
+        val entry = cache.getIfPresent(cacheKey);
+        if (entry == null) return null;
+
+        val droppedAt = entry.droppedAt;
+        if (droppedAt == 0 || System.currentTimeMillis() - droppedAt <= graceMillis(option)) {
+            return entry.item;
+        }
+
+        cache.asMap().remove(cacheKey, entry);
+        return null;
+    }
+
+    /**
+     * Find the StaleServedException in the causes of the exception.
+     *
+     * @param ex exception thrown by the cache.
+     * @return StaleServedException or null.
+     */
+    public StaleServedException findStaleServed(Throwable ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof StaleServedException) return (StaleServedException) t;
+        }
+        return null;
+    }
+
+    public Reason reasonOf(Throwable ex) {
+        return ex instanceof LoaderTimeoutException ? Reason.TIMEOUT : Reason.ERROR;
+    }
+
+    public void served(String cacheKey, Reason reason) {
+        log.warn("serve stale value of cache key {} for {}", cacheKey, reason);
+        servedTimes.computeIfAbsent(new MetricKey(Keys.namespace(cacheKey), reason),
+                k -> new AtomicLong()).incrementAndGet();
+    }
+
+    public long getServedTimes(String namespace, Reason reason) {
+        val times = servedTimes.get(new MetricKey(namespace, reason));
+        return times == null ? 0 : times.get();
+    }
+
+    public Map<MetricKey, Long> getServedTimes() {
+        Map<MetricKey, Long> result = Maps.newHashMap();
+        for (val entry : servedTimes.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().get());
+        }
+        return result;
+    }
+
+    public void reset() {
+        for (val cache : retained.values()) {
+            cache.invalidateAll();
+        }
+        retained.clear();
+        servedTimes.clear();
+    }
+}
@@ -0,0 +1,91 @@
+package com.github.bingoohuang.westcache.utils;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * The threads of the background loads, like the snapshot races, the stale
+ * fallback loaders, the batch loaders and the reloaders.
+ * <p>
+ * On JDK 21+ they are virtual threads, found by reflection to keep the
+ * Java 8 compatibility, unless the system property westcache.virtualThreads
+ * is false. Otherwise they are daemon platform threads.
+ * <p>
+ * The scheduled timers, like the timing wheel ticker, the batcher timer and
+ * the flush bus gap checker, keep their own daemon platform threads.
+ *
+ * @author bingoohuang [bingoohuang@gmail.com] Created on 2026/10/19.
+ */
+@Slf4j @UtilityClass
+public class ThreadFactories {
+    public static final String VIRTUAL_THREADS = "westcache.virtualThreads";
+
+    private final Method ofVirtual = findVirtual();
+
+    private Method findVirtual() {
+        if ("false".equals(System.getProperty(VIRTUAL_THREADS))) return null;
+
+        try {
+            val method = Thread.class.getMethod("ofVirtual");
+            method.invoke(null); // fails on the JDKs where virtual threads are a preview
+            log.info("virtual threads are used for the background loads");
+            return method;
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+
+    public boolean isVirtual() {
+        return ofVirtual != null;
+    }
+
+    /**
+     * Create a thread factory of the background loads.
+     *
+     * @param prefix name prefix of the threads, like "westcache-loader-".
+     * @return virtual or daemon thread factory.
+     */
+    public ThreadFactory create(String prefix) {
+        if (ofVirtual == null) {
+            return new ThreadFactoryBuilder().setNameFormat(prefix + "%d").setDaemon(true).build();
+        }
+
+        try {
+            val builderClass = Class.forName("java.lang.Thread$Builder");
+            val builder = builderClass.getMethod("name", String.class, long.class)
+                    .invoke(ofVirtual.invoke(null), prefix, 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (Exception ex) {
+            log.warn("create virtual thread factory failed, use platform threads", ex);
+            return new ThreadFactoryBuilder().setNameFormat(prefix + "%d").setDaemon(true).build();
+        }
+    }
+
+    /**
+     * Create an executor which runs every task in a new virtual thread,
+     * or a cached thread pool of daemon platform threads.
+     *
+     * @param prefix name prefix of the threads.
+     * @return executor.
+     */
+    public ExecutorService newTaskExecutor(String prefix) {
+        val threadFactory = create(prefix);
+        if (ofVirtual == null) return Executors.newCachedThreadPool(threadFactory);
+
+        try {
+            return (ExecutorService) Executors.class
+                    .getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, threadFactory);
+        } catch (Exception ex) {
+            log.warn("create thread per task executor failed, use cached thread pool", ex);
+            return Executors.newCachedThreadPool(threadFactory);
+        }
+    }
+}
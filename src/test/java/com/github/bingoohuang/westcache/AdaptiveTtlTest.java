@@ -0,0 +1,98 @@
+package com.github.bingoohuang.westcache;
+
+import com.github.bingoohuang.westcache.base.WestCacheItem;
+import com.github.bingoohuang.westcache.utils.AdaptiveTtls;
+import com.github.bingoohuang.westcache.utils.WestCacheOption;
+import com.google.common.base.Optional;
+import lombok.Setter;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * @author bingoohuang [bingoohuang@gmail.com] Created on 2026/10/19.
+ */
+public class AdaptiveTtlTest {
+    public static class RateService {
+        final AtomicInteger loads = new AtomicInteger();
+        @Setter private String rate = "6.8";
+
+        @WestCacheable(keyer = "simple", specs = "adaptiveTtl=min:1s;max:4s")
+        public String getRate(String currency) {
+            loads.incrementAndGet();
+            return currency + "=" + rate;
+        }
+    }
+
+    @Test
+    public void adapt() {
+        val option = WestCacheOption.builder().specs("adaptiveTtl=min:1s;max:4s;scope:method").build();
+        val key1 = "AdaptiveTtlTest.adapt_1";
+        val key2 = "AdaptiveTtlTest.adapt_2";
+
+        assertThat(adapt(option, key1, "a").getDurationSeconds()).isEqualTo(1L);
+        assertThat(adapt(option, key1, "a").getDurationSeconds()).isEqualTo(2L);
+        assertThat(adapt(option, key2, "x").getDurationSeconds()).isEqualTo(2L);
+        assertThat(adapt(option, key2, "x").getDurationSeconds()).isEqualTo(4L);
+        assertThat(adapt(option, key1, "a").getDurationSeconds()).isEqualTo(4L);
+        assertThat(adapt(option, key1, "b").getDurationSeconds()).isEqualTo(2L);
+        assertThat(adapt(option, key1, "c").getDurationSeconds()).isEqualTo(1L);
+        assertThat(adapt(option, key1, "d").getDurationSeconds()).isEqualTo(1L);
+        assertThat(AdaptiveTtls.getTtlSeconds("AdaptiveTtlTest.adapt")).isEqualTo(1L);
+
+        val absent = new WestCacheItem(Optional.absent(), option);
+        assertThat(AdaptiveTtls.adapt(option, key1, absent)).isSameAs(absent);
+    }
+
+    @Test
+    public void sortedMaps() {
+        val option = WestCacheOption.builder().specs("adaptiveTtl=min:1s;max:4s").build();
+        val key = "AdaptiveTtlTest.sortedMaps";
+        // "a" and "q" are in the same bucket, iterated in the order of the puts
+        val map1 = new HashMap<String, Integer>();
+        map1.put("a", 1);
+        map1.put("q", 2);
+        val map2 = new HashMap<String, Integer>();
+        map2.put("q", 2);
+        map2.put("a", 1);
+
+        // the same entries iterated in another order are not a change
+        assertThat(AdaptiveTtls.adapt(option, key, new WestCacheItem(Optional.of(map1), option))
+                .getDurationSeconds()).isEqualTo(1L);
+        assertThat(AdaptiveTtls.adapt(option, key, new WestCacheItem(Optional.of(map2), option))
+                .getDurationSeconds()).isEqualTo(2L);
+    }
+
+    @Test @SneakyThrows
+    public void reloads() {
+        val service = WestCacheFactory.create(RateService.class);
+        val cacheKey = "AdaptiveTtlTest.RateService.getRate_USD";
+
+        assertThat(service.getRate("USD")).isEqualTo("USD=6.8");
+        assertThat(AdaptiveTtls.getTtlSeconds(cacheKey)).isEqualTo(1L);
+
+        Thread.sleep(1100L);
+        assertThat(service.getRate("USD")).isEqualTo("USD=6.8");
+        assertThat(service.loads.get()).isEqualTo(2);
+        assertThat(AdaptiveTtls.getTtlSeconds(cacheKey)).isEqualTo(2L);
+
+        // the unchanged value lives longer now
+        service.setRate("6.9");
+        Thread.sleep(1100L);
+        assertThat(service.getRate("USD")).isEqualTo("USD=6.8");
+        assertThat(service.loads.get()).isEqualTo(2);
+
+        Thread.sleep(1000L);
+        assertThat(service.getRate("USD")).isEqualTo("USD=6.9");
+        assertThat(AdaptiveTtls.getTtlSeconds(cacheKey)).isEqualTo(1L);
+    }
+
+    private static WestCacheItem adapt(WestCacheOption option, String cacheKey, String value) {
+        return AdaptiveTtls.adapt(option, cacheKey, new WestCacheItem(Optional.of(value), option));
+    }
+}
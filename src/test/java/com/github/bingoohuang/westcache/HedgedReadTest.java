@@ -0,0 +1,102 @@
+package com.github.bingoohuang.westcache;
+
+import com.github.bingoohuang.westcache.utils.HedgedReads;
+import com.github.bingoohuang.westcache.utils.Redis;
+import com.github.bingoohuang.westcache.utils.Specs;
+import com.github.bingoohuang.westcache.utils.WestCacheOption;
+import com.google.common.collect.Lists;
+import lombok.val;
+import org.junit.Test;
+import redis.clients.jedis.JedisCommands;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * @author bingoohuang [bingoohuang@gmail.com] Created on 2026/10/19.
+ */
+public class HedgedReadTest {
+    static JedisCommands stub(String value, AtomicLong delayMillis) {
+        return (JedisCommands) Proxy.newProxyInstance(JedisCommands.class.getClassLoader(),
+                new Class[]{JedisCommands.class}, (proxy, method, args) -> {
+                    if (!"get".equals(method.getName())) throw new UnsupportedOperationException();
+
+                    Thread.sleep(delayMillis.get());
+                    return value + ":" + args[0];
+                });
+    }
+
+    @Test
+    public void hedge() {
+        val primaryDelay = new AtomicLong(0);
+        val primary = stub("primary", primaryDelay);
+        val replicas = Lists.newArrayList(stub("replica", new AtomicLong(0)));
+        val hedged = HedgedReads.create(Specs.parseSubSpecs(
+                "percentile:99;minDelayMillis:20;budgetPercent:50;maxBurst:1;minSamples:5"));
+
+        for (int i = 0; i < 5; ++i) {
+            assertThat(hedged.get(primary, replicas, "k")).isEqualTo("primary:k");
+        }
+        assertThat(hedged.getDelayMillis()).isEqualTo(20L);
+        assertThat(hedged.getHedgedTimes()).isEqualTo(0L);
+
+        primaryDelay.set(500);
+        val start = System.currentTimeMillis();
+        assertThat(hedged.get(primary, replicas, "k")).isEqualTo("replica:k");
+        assertThat(System.currentTimeMillis() - start).isLessThan(400L);
+        assertThat(hedged.getHedgedTimes()).isEqualTo(1L);
+        assertThat(hedged.getHedgeWins()).isEqualTo(1L);
+
+        // the budget is spent, wait for the primary
+        assertThat(hedged.get(primary, replicas, "k")).isEqualTo("primary:k");
+        assertThat(hedged.getHedgedTimes()).isEqualTo(1L);
+    }
+
+    @Test
+    public void noHedgeAfterWrite() {
+        val primary = stub("primary", new AtomicLong(200));
+        val replicas = Lists.newArrayList(stub("replica", new AtomicLong(0)));
+        val hedged = HedgedReads.create(Specs.parseSubSpecs(
+                "minSamples:0;minDelayMillis:10;budgetPercent:100;writeLagMillis:60000"));
+
+        assertThat(hedged.get(primary, replicas, "k")).isEqualTo("replica:k");
+        assertThat(hedged.getHedgedTimes()).isEqualTo(1L);
+
+        // the replica may not have the write yet
+        hedged.written("k");
+        assertThat(hedged.get(primary, replicas, "k")).isEqualTo("primary:k");
+        assertThat(hedged.getHedgedTimes()).isEqualTo(1L);
+    }
+
+    @Test
+    public void redisGet() {
+        val primaryDelay = new AtomicLong(500);
+        val primary = stub("primary", primaryDelay);
+        val replica = stub("replica", new AtomicLong(0));
+        val option = WestCacheOption.builder()
+                .specs("redisHedge=minSamples:0;minDelayMillis:10;budgetPercent:100").build();
+        val plainOption = WestCacheOption.builder().build();
+        val origin = Redis.getJedis();
+        Redis.setJedis(primary);
+        Redis.setReplicas(Lists.newArrayList(replica));
+
+        try {
+            assertThat(Redis.get(option, primary, "k")).isEqualTo("replica:k");
+            assertThat(Redis.getHedgedReads(option, primary).getHedgeWins()).isEqualTo(1L);
+
+            Redis.written(primary, "k");
+            assertThat(Redis.get(option, primary, "k")).isEqualTo("primary:k");
+            assertThat(Redis.getHedgedReads(option, primary).getHedgedTimes()).isEqualTo(1L);
+
+            primaryDelay.set(0);
+            assertThat(Redis.get(plainOption, primary, "k")).isEqualTo("primary:k");
+            // no replicas for a redis other than the default jedis
+            assertThat(Redis.get(option, stub("other", primaryDelay), "k")).isEqualTo("other:k");
+        } finally {
+            Redis.setJedis(origin);
+            Redis.setReplicas(Lists.<JedisCommands>newArrayList());
+        }
+    }
+}
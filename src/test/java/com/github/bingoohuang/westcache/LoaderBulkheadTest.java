@@ -0,0 +1,125 @@
+package com.github.bingoohuang.westcache;
+
+import com.github.bingoohuang.westcache.base.WestCacheException;
+import com.github.bingoohuang.westcache.base.WestCacheItem;
+import com.github.bingoohuang.westcache.utils.LoaderBulkhead;
+import com.github.bingoohuang.westcache.utils.WestCacheOption;
+import com.google.common.base.Optional;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.bingoohuang.westcache.WestCacheRegistry.SNAPSHOT_REGISTRY;
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * @author bingoohuang [bingoohuang@gmail.com] Created on 2026/10/19.
+ */
+public class LoaderBulkheadTest {
+    public static class LimitedService {
+        final AtomicInteger loading = new AtomicInteger();
+        final AtomicInteger maxLoading = new AtomicInteger();
+
+        @WestCacheable(specs = "loaderConcurrency=2,loaderWaitMillis=3000")
+        @SneakyThrows
+        public String load(String id) {
+            val current = loading.incrementAndGet();
+            maxLoading.accumulateAndGet(current, Math::max);
+            Thread.sleep(100L);
+            loading.decrementAndGet();
+            return "value-" + id;
+        }
+    }
+
+    public static class BlockingService {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch gate = new CountDownLatch(1);
+
+        @SneakyThrows
+        String block(String id) {
+            started.countDown();
+            gate.await(3, TimeUnit.SECONDS);
+            return "value-" + id;
+        }
+    }
+
+    public static class FailFastService extends BlockingService {
+        @WestCacheable(specs = "loaderConcurrency=1,loaderWaitMillis=10")
+        public String load(String id) {
+            return block(id);
+        }
+    }
+
+    public static class StaleService extends BlockingService {
+        @WestCacheable(snapshot = "file",
+                specs = "loaderConcurrency=1,loaderWaitMillis=10,loaderSaturated=stale")
+        public String load(String id) {
+            return block(id);
+        }
+    }
+
+    @Test @SneakyThrows
+    public void limitConcurrency() {
+        val service = WestCacheFactory.create(LimitedService.class);
+        val pool = Executors.newFixedThreadPool(6);
+        List<Future<String>> futures = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 6; ++i) {
+            val id = "" + i;
+            futures.add(pool.submit(() -> service.load(id)));
+        }
+
+        for (int i = 0; i < 6; ++i) {
+            assertThat(futures.get(i).get()).isEqualTo("value-" + i);
+        }
+        pool.shutdown();
+
+        assertThat(service.maxLoading.get()).isEqualTo(2);
+        val namespace = LimitedService.class.getName().replace('$', '.') + ".load";
+        val bulkhead = LoaderBulkhead.getBulkheads().get(namespace);
+        assertThat(bulkhead.getConcurrency()).isEqualTo(2);
+        assertThat(bulkhead.getActive()).isEqualTo(0);
+        assertThat(bulkhead.getSaturatedTimes()).isEqualTo(0);
+    }
+
+    @Test @SneakyThrows
+    public void failFast() {
+        val service = WestCacheFactory.create(FailFastService.class);
+        val blocked = CompletableFuture.supplyAsync(() -> service.load("a"));
+        service.started.await(3, TimeUnit.SECONDS);
+
+        try {
+            service.load("b");
+            throw new AssertionError("should fail fast when saturated");
+        } catch (WestCacheException ex) {
+            assertThat(ex.getMessage()).contains("saturated");
+        }
+
+        service.gate.countDown();
+        assertThat(blocked.get()).isEqualTo("value-a");
+        assertThat(service.load("b")).isEqualTo("value-b");
+    }
+
+    @Test @SneakyThrows
+    public void serveStale() {
+        val service = WestCacheFactory.create(StaleService.class);
+        val snapshot = SNAPSHOT_REGISTRY.get("file");
+        val option = WestCacheOption.parseWestCacheable(StaleService.class.getMethod("load", String.class));
+        val cacheKey = StaleService.class.getName().replace('$', '.') + ".load_b";
+        snapshot.saveSnapshot(option, cacheKey, new WestCacheItem(Optional.of("stale-b"), option));
+
+        val blocked = CompletableFuture.supplyAsync(() -> service.load("a"));
+        service.started.await(3, TimeUnit.SECONDS);
+        assertThat(service.load("b")).isEqualTo("stale-b");
+
+        service.gate.countDown();
+        assertThat(blocked.get()).isEqualTo("value-a");
+        assertThat(service.load("b")).isEqualTo("value-b");
+
+        snapshot.deleteSnapshot(option, cacheKey);
+        snapshot.deleteSnapshot(option, StaleService.class.getName().replace('$', '.') + ".load_a");
+    }
+}
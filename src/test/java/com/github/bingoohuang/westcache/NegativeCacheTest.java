@@ -0,0 +1,87 @@
+package com.github.bingoohuang.westcache;
+
+import com.github.bingoohuang.westcache.utils.NegativeCaches;
+import com.github.bingoohuang.westcache.utils.Redis;
+import com.github.bingoohuang.westcache.utils.WestCacheOption;
+import com.google.common.collect.Lists;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.Test;
+
+import java.util.List;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * @author bingoohuang [bingoohuang@gmail.com] Created on 2026/10/19.
+ */
+public class NegativeCacheTest {
+    public static class UserService {
+        final List<String> loads = Lists.newArrayList();
+
+        @WestCacheable(specs = "negativeTtl=1s,negativeMaxSize=2")
+        public String findUser(String id) {
+            loads.add(id);
+            return id.startsWith("none") ? null : "user-" + id;
+        }
+
+        @WestCacheable(manager = "redis", keyer = "simple", specs = "negativeTtl=10s")
+        public String findRedisUser(String id) {
+            loads.add(id);
+            return id.startsWith("none") ? null : "user-" + id;
+        }
+    }
+
+    @Test @SneakyThrows
+    public void negativeTtl() {
+        val service = WestCacheFactory.create(UserService.class);
+        assertThat(service.findUser("none1")).isNull();
+        assertThat(service.findUser("none1")).isNull();
+        assertThat(service.findUser("a")).isEqualTo("user-a");
+        assertThat(service.loads).containsExactly("none1", "a").inOrder();
+
+        Thread.sleep(1100L);
+        assertThat(service.findUser("none1")).isNull();
+        assertThat(service.findUser("a")).isEqualTo("user-a");
+        assertThat(service.loads).containsExactly("none1", "a", "none1").inOrder();
+    }
+
+    @Test
+    public void negativeBudget() {
+        val service = WestCacheFactory.create(UserService.class);
+        for (val id : new String[]{"b", "c", "d", "none2", "none3", "none4"}) {
+            service.findUser(id);
+        }
+        service.loads.clear();
+
+        assertThat(service.findUser("none4")).isNull();
+        assertThat(service.findUser("none3")).isNull();
+        assertThat(service.findUser("none2")).isNull();
+        for (val id : new String[]{"b", "c", "d"}) {
+            assertThat(service.findUser(id)).isEqualTo("user-" + id);
+        }
+        assertThat(service.loads).containsExactly("none2");
+    }
+
+    @Test @SneakyThrows
+    public void redisNullEncoding() {
+        val service = WestCacheFactory.create(UserService.class);
+        val method = UserService.class.getMethod("findRedisUser", String.class);
+        val option = WestCacheOption.parseWestCacheable(method);
+        val missingKey = "NegativeCacheTest.UserService.findRedisUser_none5";
+        Redis.getJedis().del(Redis.PREFIX + missingKey);
+        assertThat(option.getManager().get(option, missingKey)).isNull();
+
+        assertThat(service.findRedisUser("none5")).isNull();
+        assertThat(service.findRedisUser("none5")).isNull();
+        assertThat(service.loads).containsExactly("none5");
+
+        val redisKey = Redis.PREFIX + missingKey;
+        assertThat(Redis.getJedis().get(redisKey)).isEqualTo(Redis.NULL_VALUE);
+        assertThat(Redis.getJedis().ttl(redisKey)).isGreaterThan(0L);
+        val item = option.getManager().get(option, missingKey);
+        assertThat(item.isPresent()).isFalse();
+
+        Redis.getJedis().del(redisKey);
+    }
+}
@@ -8,6 +8,8 @@ import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static com.github.bingoohuang.westcache.WestCacheRegistry.FLUSHER_REGISTRY;
 import static com.github.bingoohuang.westcache.WestCacheRegistry.MANAGER_REGISTRY;
 import static com.google.common.truth.Truth.assertThat;
@@ -31,8 +33,28 @@ public class QuartzFlusherTest {
         public long doThat() {
             return System.currentTimeMillis();
         }
+
+        @WestCacheable(
+                manager = "quartz-manager",
+                flusher = "quartz-flusher",
+                specs = "scheduled=Every 1 hour")
+        public long doHourly() {
+            return System.currentTimeMillis();
+        }
+
+        @WestCacheable(
+                manager = "quartz-manager",
+                flusher = "quartz-flusher",
+                specs = "scheduled=Every 1 second,flushMode=reload")
+        public long doReload() {
+            reloadTimes.incrementAndGet();
+            Threadx.sleepMillis(100);
+            return System.currentTimeMillis();
+        }
     }
 
+    static final AtomicInteger reloadTimes = new AtomicInteger();
+
     @BeforeClass
     public static void beforeClass() {
         MANAGER_REGISTRY.register("quartz-manager", new GuavaCacheManager());
@@ -65,4 +87,38 @@ public class QuartzFlusherTest {
         long t2 = service.doThat();
         assertThat(t1).isEqualTo(t2);
     }
+
+    @Test
+    public void perKeySchedule() {
+        val service = WestCacheFactory.create(QuartzService.class);
+        service.doHourly();
+        service.doWhat();
+        Threadx.sleepMillis(300); // the triggers fire at once when scheduled
+
+        long h1 = service.doHourly();
+        Threadx.sleepMillis(1500);
+
+        long h2 = service.doHourly();
+        assertThat(h2).isEqualTo(h1);
+    }
+
+    @Test
+    public void reloadAhead() {
+        val service = WestCacheFactory.create(QuartzService.class);
+        service.doReload();
+        Threadx.sleepMillis(300); // the trigger fires at once when scheduled
+
+        long r1 = service.doReload();
+        val loaded = reloadTimes.get();
+        Threadx.sleepMillis(1500);
+        long r2 = service.doReload();
+        assertThat(r2).isGreaterThan(r1);
+        assertThat(reloadTimes.get()).isGreaterThan(loaded);
+
+        val times = reloadTimes.get();
+        for (int i = 0; i < 10; ++i) {
+            assertThat(service.doReload()).isAtLeast(r2);
+        }
+        assertThat(reloadTimes.get() - times).isAtMost(1);
+    }
 }
@@ -0,0 +1,109 @@
+package com.github.bingoohuang.westcache;
+
+import com.github.bingoohuang.westcache.utils.CircuitBreaker;
+import com.github.bingoohuang.westcache.utils.EmbeddedRedis;
+import com.github.bingoohuang.westcache.utils.Redis;
+import com.github.bingoohuang.westcache.utils.WestCacheOption;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.Test;
+import redis.embedded.RedisServer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * @author bingoohuang [bingoohuang@gmail.com] Created on 2026/10/19.
+ */
+public class RedisBreakerTest {
+    public static class RedisBreakerService {
+        final AtomicInteger loads = new AtomicInteger();
+
+        @WestCacheable(manager = "redis", keyer = "simple",
+                specs = "redisBreaker=minCalls:2;windowSize:4;openMillis:300;halfOpenProbes:1")
+        public String getUser(String id) {
+            return id + "-" + loads.incrementAndGet();
+        }
+    }
+
+    @Test
+    public void breaker() {
+        val breaker = new CircuitBreaker("test", 4, 2, 50, 1000, 100, 2);
+        assertThat(breaker.call(() -> "ok", () -> "fallback")).isEqualTo("ok");
+        assertThat(breaker.call(() -> {
+            throw new IllegalStateException();
+        }, () -> "fallback")).isEqualTo("fallback");
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.call(() -> "ok", () -> "fallback")).isEqualTo("fallback");
+
+        sleep(150L);
+        assertThat(breaker.call(() -> "ok", () -> "fallback")).isEqualTo("ok");
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.call(() -> "ok", () -> "fallback")).isEqualTo("ok");
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        val slow = new CircuitBreaker("slow", 4, 2, 50, 10, 100, 1);
+        slow.call(() -> "ok", () -> "fallback");
+        slow.call(() -> {
+            Thread.sleep(20L);
+            return "ok";
+        }, () -> "fallback");
+        assertThat(slow.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test @SneakyThrows
+    public void localFallback() {
+        val port = EmbeddedRedis.getRandomPort();
+        val server = new RedisServer(port);
+        server.start();
+        val origin = Redis.getJedis();
+        Redis.setJedis(Redis.createJedisCommands("127.0.0.1", port, 2));
+
+        try {
+            val service = WestCacheFactory.create(RedisBreakerService.class);
+            val method = RedisBreakerService.class.getMethod("getUser", String.class);
+            val option = WestCacheOption.parseWestCacheable(method);
+            val breaker = Redis.getBreaker(option, Redis.getJedis());
+            val cacheKey = "RedisBreakerTest.RedisBreakerService.getUser_a";
+            val otherKey = "RedisBreakerTest.RedisBreakerService.getUser_b";
+
+            assertThat(service.getUser("a")).isEqualTo("a-1");
+            assertThat(service.getUser("a")).isEqualTo("a-1");
+
+            server.stop();
+            assertThat(service.getUser("a")).isEqualTo("a-2");
+            assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+            // served from the local fallback while open
+            assertThat(service.getUser("a")).isEqualTo("a-3");
+            assertThat(service.getUser("a")).isEqualTo("a-3");
+            option.getManager().invalidate(option, cacheKey, "");
+            option.getManager().invalidate(option, otherKey, "");
+            assertThat(service.getUser("a")).isEqualTo("a-4");
+
+            server.start();
+            Redis.getJedis().set(Redis.PREFIX + cacheKey, "\"a-0\"");
+            Redis.getJedis().set(Redis.PREFIX + otherKey, "\"b-0\"");
+            sleep(350L);
+
+            // the probe closes the circuit, and the invalidation is replayed
+            assertThat(option.getManager().get(option, "RedisBreakerTest.probe")).isNull();
+            assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+            assertThat(service.getUser("a")).isEqualTo("a-5");
+            assertThat(Redis.getJedis().get(Redis.PREFIX + cacheKey)).isEqualTo("\"a-5\"");
+
+            // the other invalidations are replayed in the background
+            for (int i = 0; i < 20 && Redis.getJedis().exists(Redis.PREFIX + otherKey); ++i) sleep(50L);
+            assertThat(Redis.getJedis().exists(Redis.PREFIX + otherKey)).isFalse();
+        } finally {
+            Redis.setJedis(origin);
+            server.stop();
+        }
+    }
+
+    @SneakyThrows
+    private static void sleep(long millis) {
+        Thread.sleep(millis);
+    }
+}
@@ -0,0 +1,130 @@
+package com.github.bingoohuang.westcache;
+
+import com.github.bingoohuang.westcache.base.WestCacheException;
+import com.github.bingoohuang.westcache.utils.StaleFallbacks;
+import com.github.bingoohuang.westcache.utils.WestCacheOption;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.bingoohuang.westcache.utils.StaleFallbacks.Reason.ERROR;
+import static com.github.bingoohuang.westcache.utils.StaleFallbacks.Reason.TIMEOUT;
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * @author bingoohuang [bingoohuang@gmail.com] Created on 2026/10/19.
+ */
+public class StaleOnErrorTest {
+    public static class BasicService {
+        final AtomicInteger loads = new AtomicInteger();
+        volatile String mode = "ok";
+
+        @SneakyThrows
+        String doLoad(String id) {
+            if ("error".equals(mode)) throw new WestCacheException("origin is down");
+            if ("hang".equals(mode)) Thread.sleep(3000L);
+            return id + "-" + loads.incrementAndGet();
+        }
+
+        @SneakyThrows
+        void invalidate(String methodName, String id) {
+            val method = getClass().getSuperclass().getMethod(methodName, String.class);
+            val option = WestCacheOption.parseWestCacheable(method);
+            option.getManager().invalidate(option, cacheKey(methodName, id), "");
+        }
+
+        @SneakyThrows
+        boolean isCached(String methodName, String id) {
+            val method = getClass().getSuperclass().getMethod(methodName, String.class);
+            val option = WestCacheOption.parseWestCacheable(method);
+            return option.getManager().get(option, cacheKey(methodName, id)) != null;
+        }
+
+        private String cacheKey(String methodName, String id) {
+            return getClass().getSuperclass().getName().replace('$', '.') + "." + methodName + "_" + id;
+        }
+    }
+
+    public static class StaleService extends BasicService {
+        @WestCacheable(specs = "static.key=yes,staleOnError=1m,loaderTimeoutMillis=200")
+        public String load(String id) {
+            return doLoad(id);
+        }
+
+        @WestCacheable(specs = "static.key=yes,staleOnError=1s")
+        public String loadShortGrace(String id) {
+            return doLoad(id);
+        }
+
+        @WestCacheable(manager = "expiring", specs = "static.key=yes,staleOnError=1s,expireAfterWrite=1s")
+        public String loadShortTtl(String id) {
+            return doLoad(id);
+        }
+    }
+
+    @Test
+    public void serveStaleOnError() {
+        val service = WestCacheFactory.create(StaleService.class);
+        val namespace = StaleService.class.getName().replace('$', '.');
+        assertThat(service.load("a")).isEqualTo("a-1");
+
+        service.invalidate("load", "a");
+        service.mode = "error";
+        assertThat(service.load("a")).isEqualTo("a-1");
+        assertThat(StaleFallbacks.getServedTimes(namespace, ERROR)).isEqualTo(1);
+        assertThat(service.isCached("load", "a")).isFalse(); // stale value is not written back
+
+        service.mode = "hang";
+        val start = System.currentTimeMillis();
+        assertThat(service.load("a")).isEqualTo("a-1");
+        assertThat(System.currentTimeMillis() - start).isLessThan(2000L);
+        assertThat(StaleFallbacks.getServedTimes(namespace, TIMEOUT)).isEqualTo(1);
+
+        service.mode = "ok";
+        assertThat(service.load("a")).isEqualTo("a-2");
+
+        service.mode = "error";
+        try {
+            service.load("b");
+            throw new AssertionError("should fail without stale value");
+        } catch (WestCacheException ex) {
+            assertThat(ex.getMessage()).isEqualTo("origin is down");
+        }
+    }
+
+    @Test @SneakyThrows
+    public void graceExpired() {
+        val service = WestCacheFactory.create(StaleService.class);
+        assertThat(service.loadShortGrace("x")).isEqualTo("x-1");
+
+        service.invalidate("loadShortGrace", "x");
+        service.mode = "error";
+        assertThat(service.loadShortGrace("x")).isEqualTo("x-1");
+
+        Thread.sleep(1100L);
+        try {
+            service.loadShortGrace("x");
+            throw new AssertionError("should fail after the grace period");
+        } catch (WestCacheException ex) {
+            assertThat(ex.getMessage()).isEqualTo("origin is down");
+        }
+    }
+
+    @Test @SneakyThrows
+    public void retainedExpired() {
+        val service = WestCacheFactory.create(StaleService.class);
+        assertThat(service.loadShortTtl("y")).isEqualTo("y-1");
+
+        // the retained value expires after the ttl plus the grace period
+        Thread.sleep(2100L);
+        service.mode = "error";
+        try {
+            service.loadShortTtl("y");
+            throw new AssertionError("should fail after the ttl and the grace period");
+        } catch (WestCacheException ex) {
+            assertThat(ex.getMessage()).isEqualTo("origin is down");
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.github.bingoohuang.westcache;
+
+import com.github.bingoohuang.westcache.flusher.WestCacheFlusherBean;
+import com.github.bingoohuang.westcache.flusher.WestCacheFlusherRow;
+import com.github.bingoohuang.westcache.outofbox.TableCacheFlusher;
+import com.github.bingoohuang.westcache.utils.WestCacheOption;
+import lombok.val;
+import org.junit.Test;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * @author bingoohuang [bingoohuang@gmail.com] Created on 2026/10/19.
+ */
+public class TableCacheFlusherIncrementalTest {
+    static class IncrementalFlusher extends TableCacheFlusher {
+        int allPolls;
+        int changedRows;
+
+        @Override protected List<WestCacheFlusherRow> queryAllRows() {
+            ++allPolls;
+            return super.queryAllRows();
+        }
+
+        @Override protected List<WestCacheFlusherRow> queryChangedRows(Timestamp since) {
+            val rows = super.queryChangedRows(since);
+            changedRows = rows.size();
+            return rows;
+        }
+
+        void check() {
+            checkBeans(WestCacheOption.builder().build(), "IncrementalTest");
+        }
+
+        WestCacheFlusherBean find(String cacheKey) {
+            return findBean(cacheKey);
+        }
+    }
+
+    @Test
+    public void incremental() {
+        val flusher = new IncrementalFlusher();
+        flusher.setIncremental(true);
+        flusher.setFullPollTimes(3);
+        val dao = flusher.getDao();
+        dao.setup();
+
+        val fullBean = new WestCacheFlusherBean("IncrementalTest.full", "full", 0, "none", null);
+        dao.addBean(fullBean);
+        flusher.check();
+        assertThat(flusher.allPolls).isEqualTo(1);
+        assertThat(flusher.find("IncrementalTest.full")).isEqualTo(fullBean);
+
+        val prefixBean = new WestCacheFlusherBean("IncrementalTest.prefix", "prefix", 0, "none", null);
+        dao.addBean(prefixBean);
+        flusher.check();
+        assertThat(flusher.allPolls).isEqualTo(1);
+        assertThat(flusher.changedRows).isEqualTo(2);
+        assertThat(flusher.find("IncrementalTest.prefix_11")).isEqualTo(prefixBean);
+
+        flusher.disableBean(fullBean);
+        flusher.check();
+        assertThat(flusher.allPolls).isEqualTo(1);
+        assertThat(flusher.find("IncrementalTest.full")).isNull();
+
+        flusher.upgradeVersion("IncrementalTest.prefix");
+        flusher.check(); // full poll every 3 polls
+        assertThat(flusher.allPolls).isEqualTo(2);
+        assertThat(flusher.find("IncrementalTest.prefix_11").getValueVersion()).isEqualTo(1);
+
+        flusher.disableBean(prefixBean);
+        flusher.check();
+        assertThat(flusher.find("IncrementalTest.prefix_11")).isNull();
+    }
+}
@@ -1,11 +1,19 @@
 package com.github.bingoohuang.westcache;
 
 import com.github.bingoohuang.westcache.batch.BatchTest;
+import com.github.bingoohuang.westcache.batch.MissBatchTest;
 import com.github.bingoohuang.westcache.eqler.EqlerCacheableTest;
+import com.github.bingoohuang.westcache.flusher.BusCacheFlusherTest;
 import com.github.bingoohuang.westcache.flusher.DiamondCacheFlusherTest;
+import com.github.bingoohuang.westcache.flusher.FlusherBeanMatcherTest;
+import com.github.bingoohuang.westcache.flusher.SimpleCacheFlusherTest;
+import com.github.bingoohuang.westcache.flusher.TableBasedCacheFlusherTest;
 import com.github.bingoohuang.westcache.peng.BasicDataCacheTest;
 import com.github.bingoohuang.westcache.peng.PengTest;
+import com.github.bingoohuang.westcache.snapshot.DeltaCacheSnapshotTest;
 import com.github.bingoohuang.westcache.snapshot.FileCacheSnapshotTest;
+import com.github.bingoohuang.westcache.snapshot.FileSnapshotMaintainerTest;
+import com.github.bingoohuang.westcache.snapshot.RedisHashCacheSnapshotTest;
 import com.github.bingoohuang.westcache.springann.DemoInterfaceTest;
 import com.github.bingoohuang.westcache.springann.DemoServiceTest;
 import com.github.bingoohuang.westcache.springann.SpringAnnDaoTest;
@@ -27,7 +35,25 @@ import org.n3r.diamond.client.impl.MockDiamondServer;
 //        DemoInterfaceTest.class,
 //        DemoServiceTest.class,
 //        AnnsTest.class,
-//        FastJsonsTest.class,
+        FastJsonsTest.class,
+        LatencyHistogramTest.class,
+        MethodsTest.class,
+        FileSnapshotMaintainerTest.class,
+        DeltaCacheSnapshotTest.class,
+        RedisHashCacheSnapshotTest.class,
+        FlusherBeanMatcherTest.class,
+        TableCacheFlusherIncrementalTest.class,
+        SimpleCacheFlusherTest.class,
+        TableBasedCacheFlusherTest.class,
+        LoaderBulkheadTest.class,
+        StaleOnErrorTest.class,
+        NegativeCacheTest.class,
+        RedisBreakerTest.class,
+        TimingWheelCacheManagerTest.class,
+        AdaptiveTtlTest.class,
+        HedgedReadTest.class,
+        ThreadFactoriesTest.class,
+        BusCacheFlusherTest.class,
 //        AnnOverrideTest.class,
 //        BenchMarkTest.class,
 //        CacheApiTest.class,
@@ -55,18 +81,19 @@ import org.n3r.diamond.client.impl.MockDiamondServer;
 //        MiscTest.class,
 //        ServiceSpringXmlTest.class,
 //        WestCacheOptionTest.class,
-//        QuartzFlusherTest.class,
+        QuartzFlusherTest.class,
 //        ScheduledParserTest.class,
 //        WestCacheFactoryTest.class,
 //        WestCacheConnectorTest.class,
 //        DynamicExpireAfterWriteTest.class,
 //        ExpireAfterWritesTest.class,
 //        GuavasTest.class,
-//        BatchTest.class,
+        BatchTest.class,
+        MissBatchTest.class,
 //        GuavaExpiringCacheManagerTest.class,
-//        FileCacheSnapshotTest.class,
+        FileCacheSnapshotTest.class,
 //        RedisTest.class,
-//        DiamondCacheFlusherTest.class,
+        DiamondCacheFlusherTest.class,
 //        RedisManagerCheckStartupTimeTest.class,
 //        EqlerCacheableTest.class,
 //        SpringAnnDaoTest.class,
@@ -0,0 +1,48 @@
+package com.github.bingoohuang.westcache;
+
+import com.github.bingoohuang.westcache.utils.ThreadFactories;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * @author bingoohuang [bingoohuang@gmail.com] Created on 2026/10/19.
+ */
+public class ThreadFactoriesTest {
+    @Test @SneakyThrows
+    public void threads() {
+        // virtual threads are only on JDK 21+
+        val virtual = ThreadFactories.isVirtual();
+        assertThat(virtual).isEqualTo(hasVirtualThreads());
+
+        val thread = ThreadFactories.create("westcache-test-").newThread(() -> { });
+        assertThat(isVirtual(thread)).isEqualTo(virtual);
+        assertThat(thread.isDaemon()).isTrue();
+        assertThat(thread.getName()).isEqualTo("westcache-test-0");
+
+        val executor = ThreadFactories.newTaskExecutor("westcache-task-");
+        val taskThread = executor.submit(Thread::currentThread).get();
+        assertThat(isVirtual(taskThread)).isEqualTo(virtual);
+        assertThat(taskThread.getName()).startsWith("westcache-task-");
+        executor.shutdown();
+    }
+
+    private static boolean hasVirtualThreads() {
+        try {
+            Thread.class.getMethod("ofVirtual").invoke(null);
+            return !"false".equals(System.getProperty(ThreadFactories.VIRTUAL_THREADS));
+        } catch (Exception ex) {
+            return false;
+        }
+    }
+
+    private static boolean isVirtual(Thread thread) {
+        try {
+            return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+        } catch (Exception ex) {
+            return false; // no virtual threads before JDK 21
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.github.bingoohuang.westcache;
+
+import com.github.bingoohuang.utils.lang.Threadx;
+import com.github.bingoohuang.westcache.base.WestCacheItem;
+import com.github.bingoohuang.westcache.manager.TimingWheelCacheManager.TimingWheelCache;
+import com.github.bingoohuang.westcache.utils.WestCacheOption;
+import com.google.common.base.Optional;
+import lombok.Setter;
+import lombok.val;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * @author bingoohuang [bingoohuang@gmail.com] Created on 2026/10/19.
+ */
+public class TimingWheelCacheManagerTest {
+    public static class WheelDemoService {
+        @Setter private long timestamp;
+
+        @WestCacheable(manager = "wheel", specs = "expireAfterAccess=1s")
+        public String cacheAccess() {
+            return "Access@" + timestamp;
+        }
+
+        @WestCacheable(manager = "wheel", specs = "expireAfterWrite=1s")
+        public String cacheWrite() {
+            return "Write@" + timestamp;
+        }
+    }
+
+    static WheelDemoService service = WestCacheFactory.create(WheelDemoService.class);
+
+    @Test
+    public void expireAfterAccess() {
+        service.setTimestamp(1L);
+        val cacheValue1 = service.cacheAccess();
+        assertThat(cacheValue1).isEqualTo("Access@1");
+
+        service.setTimestamp(3L);
+        for (int i = 0; i < 3; ++i) {
+            Threadx.sleepMillis(500L);
+            assertThat(service.cacheAccess()).isSameAs(cacheValue1);
+        }
+
+        Threadx.sleepMillis(1100L);
+        assertThat(service.cacheAccess()).isEqualTo("Access@3");
+    }
+
+    @Test
+    public void expireAfterWrite() {
+        service.setTimestamp(1L);
+        val cacheValue1 = service.cacheWrite();
+        assertThat(cacheValue1).isEqualTo("Write@1");
+
+        service.setTimestamp(2L);
+        Threadx.sleepMillis(500L);
+        assertThat(service.cacheWrite()).isSameAs(cacheValue1);
+
+        Threadx.sleepMillis(600L);
+        assertThat(service.cacheWrite()).isEqualTo("Write@2");
+    }
+
+    @Test
+    public void sweepByWheels() {
+        // 1 millis tick to cascade the entries of seconds down from the higher levels
+        val cache = new TimingWheelCache(1L);
+        val writeOption = WestCacheOption.builder().specs("expireAfterWrite=1s").build();
+        val accessOption = WestCacheOption.builder().specs("expireAfterAccess=1s").build();
+        val option = WestCacheOption.builder().build();
+
+        for (int i = 0; i < 100; ++i) {
+            cache.put(writeOption, "write" + i, new WestCacheItem(Optional.of(i), writeOption));
+        }
+        cache.put(accessOption, "access", new WestCacheItem(Optional.of("a"), accessOption));
+        cache.put(option, "forever", new WestCacheItem(Optional.of("f"), option));
+        cache.put(writeOption, "replaced", new WestCacheItem(Optional.of("r1"), writeOption));
+        cache.put(option, "replaced", new WestCacheItem(Optional.of("r2"), option));
+        assertThat(cache.size()).isEqualTo(103);
+
+        for (int i = 0; i < 4; ++i) {
+            Threadx.sleepMillis(400L);
+            assertThat(cache.getIfPresent(accessOption, "access").orNull()).isEqualTo("a");
+        }
+
+        // the expired entries are removed without being read
+        assertThat(cache.size()).isEqualTo(3);
+        Threadx.sleepMillis(1200L);
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.getIfPresent(option, "replaced").orNull()).isEqualTo("r2");
+        assertThat(cache.getIfPresent(option, "forever").orNull()).isEqualTo("f");
+        cache.stop();
+    }
+
+    @Test
+    public void unlinkReplaced() {
+        val cache = new TimingWheelCache();
+        val option = WestCacheOption.builder().build();
+        val writeOption = WestCacheOption.builder().specs("expireAfterWrite=1m").build();
+
+        // no ticking until the first entry with expiration
+        cache.put(option, "forever", new WestCacheItem(Optional.of("f"), option));
+        assertThat(cache.isTicking()).isFalse();
+
+        for (int i = 0; i < 100; ++i) {
+            cache.put(writeOption, "key", new WestCacheItem(Optional.of(i), writeOption));
+        }
+        assertThat(cache.isTicking()).isTrue();
+        assertThat(cache.scheduledSize()).isEqualTo(1);
+
+        cache.put(option, "key", new WestCacheItem(Optional.of("v"), option));
+        assertThat(cache.scheduledSize()).isEqualTo(0);
+
+        cache.put(writeOption, "key", new WestCacheItem(Optional.of("w"), writeOption));
+        assertThat(cache.scheduledSize()).isEqualTo(1);
+        cache.invalidate(option, "key", "");
+        assertThat(cache.scheduledSize()).isEqualTo(0);
+        assertThat(cache.size()).isEqualTo(1);
+
+        cache.stop();
+        assertThat(cache.isTicking()).isFalse();
+        cache.put(writeOption, "key", new WestCacheItem(Optional.of("s"), writeOption));
+        assertThat(cache.scheduledSize()).isEqualTo(0);
+    }
+
+    @Test
+    public void loadOnce() {
+        val cache = new TimingWheelCache();
+        val option = WestCacheOption.builder().build();
+        val loads = new AtomicInteger();
+        for (int i = 0; i < 3; ++i) {
+            val item = cache.get(option, "key", () -> {
+                loads.incrementAndGet();
+                return new WestCacheItem(Optional.of("v"), option);
+            });
+            assertThat(item.orNull()).isEqualTo("v");
+        }
+        assertThat(loads.get()).isEqualTo(1);
+
+        cache.invalidate(option, "key", "");
+        assertThat(cache.getIfPresent(option, "key")).isNull();
+        cache.stop();
+    }
+}
@@ -5,7 +5,9 @@ import lombok.val;
 import org.apache.commons.lang3.RandomStringUtils;
 
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 
@@ -98,4 +100,16 @@ public class BatchService {
     public Future<String> getToken4(String tokenId) {
         return batcher4.submit(tokenId);
     }
+
+    @WestCacheable(manager = "expiring", specs = "expireAfterWrite=2s,loaderTimeoutMillis=200")
+    public Future<String> getToken5(String tokenId) {
+        return new CompletableFuture<>(); // never completed
+    }
+
+    AtomicInteger loads = new AtomicInteger();
+
+    @WestCacheable(flusher = "simple", specs = "flushMode=reload")
+    public Future<String> getToken6(String tokenId) {
+        return CompletableFuture.completedFuture(tokenId + loads.incrementAndGet());
+    }
 }
@@ -1,6 +1,9 @@
 package com.github.bingoohuang.westcache.batch;
 
+import com.github.bingoohuang.utils.lang.Threadx;
 import com.github.bingoohuang.westcache.WestCacheFactory;
+import com.github.bingoohuang.westcache.utils.StaleFallbacks;
+import com.github.bingoohuang.westcache.utils.WestCacheConnector;
 import lombok.SneakyThrows;
 import lombok.val;
 import org.junit.Assert;
@@ -8,6 +11,7 @@ import org.junit.Test;
 
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static com.google.common.truth.Truth.assertThat;
 
@@ -20,6 +24,7 @@ public class BatchTest {
     @Test @SneakyThrows
     public void test() {
         Future<String> token1 = service.getToken("token1");
+        assertThat(service.getToken("token1")).isSameAs(token1); // in flight
         Future<String> token2 = service.getToken("token2");
         Future<String> token3 = service.getToken("token3");
 
@@ -66,6 +71,40 @@ public class BatchTest {
         assertEx(token1, "dingoo here");
         assertEx(token2, "dingoo here");
         assertEx(token3, "dingoo here");
+
+        Future<String> token11 = service.getToken4("bad");
+        assertThat(token11).isNotSameAs(token1);
+        assertEx(token11, "dingoo here");
+    }
+
+    @Test @SneakyThrows
+    public void timeout() {
+        Future<String> token1 = service.getToken5("slow");
+        assertThat(service.getToken5("slow")).isSameAs(token1); // in flight
+        try {
+            token1.get(3, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException ex) {
+            assertThat(ex.getCause()).isInstanceOf(StaleFallbacks.LoaderTimeoutException.class);
+        }
+
+        Future<String> token11 = service.getToken5("slow");
+        assertThat(token11).isNotSameAs(token1);
+    }
+
+    @Test @SneakyThrows
+    public void reload() {
+        assertThat(service.getToken6("token").get()).isEqualTo("token1");
+        assertThat(service.getToken6("token").isDone()).isTrue();
+
+        val option = WestCacheConnector.connectOption(() -> service.getToken6("token"));
+        val cacheKey = WestCacheConnector.connectKey(() -> service.getToken6("token"));
+        option.getFlusher().flush(option, cacheKey, "1");
+
+        // reloaded in the background by invoking the method again
+        for (int i = 0; i < 20 && service.loads.get() < 2; ++i) Threadx.sleepMillis(100);
+        Threadx.sleepMillis(100);
+        assertThat(service.getToken6("token").get()).isEqualTo("token2");
     }
 
     @SneakyThrows
@@ -79,15 +118,17 @@ public class BatchTest {
         Assert.fail();
     }
 
+    @SneakyThrows
     private void assertSame(Future<String> token1,
                             Future<String> token2,
                             Future<String> token3,
                             Future<String> token11,
                             Future<String> token22,
                             Future<String> token33) {
-        assertThat(token1).isSameAs(token11);
-        assertThat(token2).isSameAs(token22);
-        assertThat(token3).isSameAs(token33);
+        assertThat(token11.isDone()).isTrue();
+        assertThat(token1.get()).isEqualTo(token11.get());
+        assertThat(token2.get()).isEqualTo(token22.get());
+        assertThat(token3.get()).isEqualTo(token33.get());
     }
 
     @SneakyThrows
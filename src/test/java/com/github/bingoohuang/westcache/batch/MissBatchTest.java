@@ -0,0 +1,145 @@
+package com.github.bingoohuang.westcache.batch;
+
+import com.github.bingoohuang.westcache.WestCacheFactory;
+import com.github.bingoohuang.westcache.WestCacheable;
+import com.github.bingoohuang.westcache.utils.MissBatcher;
+import com.github.bingoohuang.westcache.utils.StaleFallbacks;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * @author bingoohuang [bingoohuang@gmail.com] Created on 2026/10/19.
+ */
+public class MissBatchTest {
+    public static class UserService {
+        final List<List<String>> batches = new CopyOnWriteArrayList<>();
+
+        @WestCacheable(specs = "batch=maxItems:3;maxWaitMillis:200,batchLoader=getUsers")
+        public String getUser(String id) {
+            throw new UnsupportedOperationException();
+        }
+
+        public Map<String, String> getUsers(List<String> ids) {
+            batches.add(ids);
+            Map<String, String> users = Maps.newHashMap();
+            for (val id : ids) {
+                if (!id.equals("none")) users.put(id, "user-" + id);
+            }
+            return users;
+        }
+
+        @WestCacheable(specs = "batch=yes,batchLoader=getNames")
+        public String getName(Integer id) {
+            throw new UnsupportedOperationException();
+        }
+
+        public List<String> getNames(Set<Integer> ids) {
+            List<String> names = Lists.newArrayList();
+            for (val id : ids) names.add("name-" + id);
+            return names;
+        }
+
+        @WestCacheable(specs = "batch=timeoutMillis:100,batchLoader=getSlowUsers")
+        public String getSlowUser(String id) {
+            throw new UnsupportedOperationException();
+        }
+
+        @SneakyThrows
+        public Map<String, String> getSlowUsers(List<String> ids) {
+            Thread.sleep(1000L);
+            return Maps.newHashMap();
+        }
+    }
+
+    static UserService service = WestCacheFactory.create(UserService.class);
+
+    @Test
+    public void bulkLoad() {
+        assertThat(getUsers("a", "b", "c")).containsExactly("user-a", "user-b", "user-c").inOrder();
+        assertThat(service.batches).hasSize(1);
+        assertThat(service.batches.get(0)).containsExactly("a", "b", "c");
+
+        assertThat(service.getUser("b")).isEqualTo("user-b");
+        assertThat(service.batches).hasSize(1);
+
+        assertThat(getUsers("a", "d", "none")).containsExactly("user-a", "user-d", null).inOrder();
+        assertThat(service.batches).hasSize(2);
+        assertThat(service.batches.get(1)).containsExactly("d", "none");
+    }
+
+    @Test @SneakyThrows
+    public void batchWindow() {
+        final List<List<Object>> batches = new CopyOnWriteArrayList<>();
+        val batcher = new MissBatcher(3, 60000, keys -> {
+            batches.add(keys);
+            Map<Object, Object> values = Maps.newHashMap();
+            for (val key : keys) values.put(((Integer) key).longValue(), key);
+            values.put(1, "one");
+            return values;
+        });
+
+        // pending in the window until flushed
+        val one = batcher.submit(1);
+        assertThat(batcher.submit(1)).isSameAs(one);
+        val two = batcher.submit(2);
+        Thread.sleep(100L);
+        assertThat(batches).isEmpty();
+
+        batcher.flush();
+        assertThat(one.get(3, TimeUnit.SECONDS)).isEqualTo("one");
+        assertThat(two.get(3, TimeUnit.SECONDS)).isNull(); // Long key 2 is not Integer key 2
+        assertThat(batches).containsExactly(Lists.<Object>newArrayList(1, 2));
+        assertThat(batcher.getUnmatchedKeys()).isEqualTo(2L);
+
+        // maxItems keys are loaded at once
+        val futures = Lists.newArrayList(batcher.submit(3), batcher.submit(4), batcher.submit(5));
+        for (val future : futures) future.get(3, TimeUnit.SECONDS);
+        assertThat(batches).hasSize(2);
+        assertThat(batches.get(1)).containsExactly(3, 4, 5).inOrder();
+    }
+
+    @Test
+    public void timeout() {
+        try {
+            service.getSlowUser("a");
+            Assert.fail();
+        } catch (StaleFallbacks.LoaderTimeoutException ex) {
+            assertThat(ex.getMessage()).contains("timeout in 100 millis");
+        }
+    }
+
+    @Test
+    public void bulkLoadList() {
+        assertThat(service.getName(1)).isEqualTo("name-1");
+        assertThat(service.getName(2)).isEqualTo("name-2");
+        assertThat(service.getName(1)).isEqualTo("name-1");
+    }
+
+    @SneakyThrows
+    private List<String> getUsers(String... ids) {
+        val executor = Executors.newFixedThreadPool(ids.length);
+        List<CompletableFuture<String>> futures = Lists.newArrayList();
+        for (val id : ids) {
+            futures.add(CompletableFuture.supplyAsync(() -> service.getUser(id), executor));
+        }
+        executor.shutdown();
+
+        List<String> users = Lists.newArrayList();
+        for (val future : futures) users.add(future.get());
+        return users;
+    }
+}
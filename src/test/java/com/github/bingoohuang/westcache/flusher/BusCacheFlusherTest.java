@@ -0,0 +1,156 @@
+package com.github.bingoohuang.westcache.flusher;
+
+import com.github.bingoohuang.utils.lang.Threadx;
+import com.github.bingoohuang.westcache.base.WestCacheItem;
+import com.github.bingoohuang.westcache.manager.GuavaCacheManager;
+import com.github.bingoohuang.westcache.utils.EmbeddedRedis;
+import com.github.bingoohuang.westcache.utils.FastJsons;
+import com.github.bingoohuang.westcache.utils.WestCacheOption;
+import com.google.common.base.Optional;
+import lombok.Cleanup;
+import lombok.val;
+import org.junit.Test;
+import redis.clients.jedis.JedisPool;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * @author bingoohuang [bingoohuang@gmail.com] Created on 2026/10/19.
+ */
+public class BusCacheFlusherTest {
+    private final WestCacheOption option = WestCacheOption.builder().build();
+
+    private void cache(BusCacheFlusher flusher, GuavaCacheManager.GuavaWestCache cache, String cacheKey) {
+        cache.put(option, cacheKey, new WestCacheItem(Optional.of(cacheKey), option));
+        flusher.register(option, cacheKey, cache);
+    }
+
+    private void waitFlushed(GuavaCacheManager.GuavaWestCache cache, String cacheKey) {
+        for (int i = 0; i < 100 && cache.getIfPresent(option, cacheKey) != null; ++i) {
+            Threadx.sleepMillis(30L);
+        }
+        assertThat(cache.getIfPresent(option, cacheKey)).isNull();
+    }
+
+    @Test
+    public void pushFlush() {
+        val pool = new JedisPool("127.0.0.1", EmbeddedRedis.port1);
+        val busA = new RedisFlushBus(pool);
+        val busB = new RedisFlushBus(pool);
+        val flusherA = new BusCacheFlusher(busA);
+        val flusherB = new BusCacheFlusher(busB);
+        flusherB.setReorderMillis(100L);
+        val cacheA = new GuavaCacheManager.GuavaWestCache();
+        val cacheB = new GuavaCacheManager.GuavaWestCache();
+
+        cache(flusherA, cacheA, "BusService.city");
+        cache(flusherB, cacheB, "BusService.city");
+        flusherA.flush(option, "BusService.city", "1");
+        assertThat(cacheA.getIfPresent(option, "BusService.city")).isNull();
+        waitFlushed(cacheB, "BusService.city");
+
+        cache(flusherB, cacheB, "BusService.cities_11");
+        cache(flusherB, cacheB, "BusService.cities_22");
+        cache(flusherB, cacheB, "BusService.citiesJSON_11");
+        flusherA.flushPrefix("BusService.cities", "1");
+        waitFlushed(cacheB, "BusService.cities_11");
+        waitFlushed(cacheB, "BusService.cities_22");
+        assertThat(cacheB.getIfPresent(option, "BusService.citiesJSON_11")).isNotNull();
+        assertThat(flusherB.getResyncTimes()).isEqualTo(0L);
+
+        @Cleanup val jedis = pool.getResource();
+        jedis.incr(busA.getSequenceKey()); // a lost event
+        flusherA.flush(option, "BusService.other", "1");
+        waitFlushed(cacheB, "BusService.citiesJSON_11");
+        assertThat(flusherB.getResyncTimes()).isEqualTo(1L);
+
+        busA.close();
+        busB.close();
+    }
+
+    @Test
+    public void channelSequences() {
+        val pool = new JedisPool("127.0.0.1", EmbeddedRedis.port1);
+        val busA = new RedisFlushBus(pool, "westcache:flush:a");
+        val busB = new RedisFlushBus(pool, "westcache:flush:b");
+        val subA = new RedisFlushBus(pool, "westcache:flush:a");
+        val subB = new RedisFlushBus(pool, "westcache:flush:b");
+        assertThat(busA.getSequenceKey()).isNotEqualTo(busB.getSequenceKey());
+
+        val flusherA = new BusCacheFlusher(busA);
+        val flusherB = new BusCacheFlusher(busB);
+        val subFlusherA = new BusCacheFlusher(subA);
+        val subFlusherB = new BusCacheFlusher(subB);
+        subFlusherA.setReorderMillis(100L);
+        subFlusherB.setReorderMillis(100L);
+        val cacheA = new GuavaCacheManager.GuavaWestCache();
+        val cacheB = new GuavaCacheManager.GuavaWestCache();
+        cache(subFlusherA, cacheA, "BusService.kept");
+        cache(subFlusherB, cacheB, "BusService.kept");
+
+        // the publishers of both channels interleave, and leave no gaps in each other's sequence
+        for (int i = 0; i < 3; ++i) {
+            cache(subFlusherA, cacheA, "BusService.a" + i);
+            cache(subFlusherB, cacheB, "BusService.b" + i);
+            flusherA.flush(option, "BusService.a" + i, "1");
+            flusherB.flush(option, "BusService.b" + i, "1");
+            waitFlushed(cacheA, "BusService.a" + i);
+            waitFlushed(cacheB, "BusService.b" + i);
+        }
+
+        Threadx.sleepMillis(300L);
+        assertThat(subFlusherA.getResyncTimes()).isEqualTo(0L);
+        assertThat(subFlusherB.getResyncTimes()).isEqualTo(0L);
+        assertThat(cacheA.getIfPresent(option, "BusService.kept")).isNotNull();
+        assertThat(cacheB.getIfPresent(option, "BusService.kept")).isNotNull();
+
+        busA.close();
+        busB.close();
+        subA.close();
+        subB.close();
+    }
+
+    static class StubBus implements FlushBus {
+        @Override public long nextSequence() {
+            return 0;
+        }
+
+        @Override public void publish(String message) {
+        }
+
+        @Override public void subscribe(Listener listener) {
+        }
+    }
+
+    private static String event(long sequence, String key) {
+        val event = new BusCacheFlusher.FlushEvent(sequence, "other", BusCacheFlusher.KEY, key, "1", 0);
+        return FastJsons.json(event);
+    }
+
+    @Test
+    public void reorderWindow() {
+        val flusher = new BusCacheFlusher(new StubBus());
+        flusher.setReorderMillis(200L);
+        val cache = new GuavaCacheManager.GuavaWestCache();
+        cache(flusher, cache, "BusService.a");
+        cache(flusher, cache, "BusService.b");
+
+        flusher.onMessage(event(1, "BusService.x"));
+        flusher.onMessage(event(3, "BusService.x"));
+        flusher.onMessage(event(2, "BusService.x"));
+        Threadx.sleepMillis(400L);
+        assertThat(flusher.getResyncTimes()).isEqualTo(0L);
+        assertThat(cache.getIfPresent(option, "BusService.a")).isNotNull();
+
+        flusher.getRegistry().invalidate("BusService.b");
+        flusher.onMessage(event(5, "BusService.x"));
+        assertThat(flusher.getResyncTimes()).isEqualTo(0L);
+        waitFlushed(cache, "BusService.a");
+        assertThat(flusher.getResyncTimes()).isEqualTo(1L);
+
+        flusher.onMessage(event(4, "BusService.x")); // too late, ignored
+        flusher.onMessage(event(6, "BusService.x"));
+        Threadx.sleepMillis(400L);
+        assertThat(flusher.getResyncTimes()).isEqualTo(1L);
+    }
+}
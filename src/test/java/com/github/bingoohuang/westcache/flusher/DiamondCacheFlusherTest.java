@@ -1,14 +1,15 @@
 package com.github.bingoohuang.westcache.flusher;
 
 import com.github.bingoohuang.westcache.WestCacheFactory;
+import com.github.bingoohuang.westcache.WestCacheRegistry;
 import com.github.bingoohuang.westcache.WestCacheable;
 import com.github.bingoohuang.westcache.utils.WestCacheConnector;
+import lombok.SneakyThrows;
 import lombok.val;
-import mockit.Deencapsulation;
 import org.junit.Test;
-import org.n3r.diamond.client.DiamondAxis;
-import org.n3r.diamond.client.DiamondStone;
-import org.n3r.diamond.client.impl.DiamondSubscriber;
+import org.n3r.diamond.client.impl.MockDiamondServer;
+
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.google.common.truth.Truth.assertThat;
 
@@ -17,33 +18,88 @@ import static com.google.common.truth.Truth.assertThat;
  */
 public class DiamondCacheFlusherTest {
     public static class DiamondFlusherService {
+        static AtomicLong seq = new AtomicLong();
+
         @WestCacheable(flusher = "diamond", specs = "static.key=yes")
         public long getBigData() {
-            return System.currentTimeMillis();
+            return seq.incrementAndGet();
+        }
+
+        @WestCacheable(flusher = "diamond", specs = "static.key=yes")
+        public long getSmallData() {
+            return seq.incrementAndGet();
+        }
+
+        @WestCacheable(flusher = "diamond", specs = "static.key=yes,diamondPerKey=true")
+        public long getPerKeyData() {
+            return seq.incrementAndGet();
         }
     }
 
     static DiamondFlusherService service = WestCacheFactory.create(DiamondFlusherService.class);
-    static String cacheKey = WestCacheConnector.connectKey(new Runnable() {
-        @Override public void run() {
-            service.getBigData();
-        }
-    });
+    static String bigKey = WestCacheConnector.connectKey(() -> service.getBigData());
+    static String smallKey = WestCacheConnector.connectKey(() -> service.getSmallData());
+    static String perKey = WestCacheConnector.connectKey(() -> service.getPerKeyData());
 
-    @Test
+    @Test @SneakyThrows
     public void acceptChange() {
-        long l = System.currentTimeMillis();
-        long first = service.getBigData();
-        assertThat(first).isGreaterThan(l);
-
-        val diamondSubscriber = DiamondSubscriber.getInstance();
-        val diamondRemoteChecker = Deencapsulation.getField(diamondSubscriber, "diamondRemoteChecker");
-        val diamondAllListener = Deencapsulation.getField(diamondRemoteChecker, "diamondAllListener");
-        val diamondStone = new DiamondStone();
-        diamondStone.setDiamondAxis(new DiamondAxis(DiamondCacheFlusher.GROUP, cacheKey));
-        diamondStone.setContent("xxxx");
-        Deencapsulation.invoke(diamondAllListener, "accept", diamondStone);
-
-        assertThat(service.getBigData()).isGreaterThan(first);
+        service.getBigData();
+        service.getSmallData();
+        updateFlushKeys(""); // clear the local snapshot of the last run
+
+        long big = service.getBigData();
+        long small = service.getSmallData();
+        assertThat(service.getBigData()).isEqualTo(big);
+
+        val flusher = (DiamondCacheFlusher) WestCacheRegistry.FLUSHER_REGISTRY.get("diamond");
+        assertThat(flusher.getSubscriptions()).isEqualTo(1);
+
+        updateFlushKeys(bigKey + "=1");
+        long big2 = service.getBigData();
+        assertThat(big2).isGreaterThan(big);
+        assertThat(service.getSmallData()).isEqualTo(small);
+
+        updateFlushKeys(bigKey + "=1\n" + smallKey + "=1");
+        assertThat(service.getBigData()).isEqualTo(big2);
+        long small2 = service.getSmallData();
+        assertThat(small2).isGreaterThan(small);
+
+        val prefix = bigKey.substring(0, bigKey.lastIndexOf('.'));
+        updateFlushKeys(bigKey + "=1\n" + smallKey + "=1\n" + prefix + "=1");
+        assertThat(service.getBigData()).isGreaterThan(big2);
+        assertThat(service.getSmallData()).isGreaterThan(small2);
+    }
+
+    @Test @SneakyThrows
+    public void acceptPerKeyChange() {
+        long per = service.getPerKeyData();
+        long big = service.getBigData();
+
+        val flusher = (DiamondCacheFlusher) WestCacheRegistry.FLUSHER_REGISTRY.get("diamond");
+        assertThat(flusher.getKeySubscriptions()).isEqualTo(1);
+
+        // the diamond client keeps the last content in its local snapshot
+        val changed = "changed" + System.currentTimeMillis();
+        updateConfig(perKey, changed);
+        assertThat(service.getPerKeyData()).isGreaterThan(per);
+
+        updateConfig(bigKey, changed);
+        assertThat(service.getBigData()).isEqualTo(big);
+    }
+
+    @Test
+    public void parseEntries() {
+        val entries = DiamondCacheFlusher.parseEntries("# comment\n a.b = 1 \nc.d\n\ne=f=2");
+        assertThat(entries).containsExactly("a.b", "1", "c.d", "", "e=f", "2");
+    }
+
+    private void updateFlushKeys(String content) {
+        updateConfig(DiamondCacheFlusher.DATA_ID, content);
+    }
+
+    @SneakyThrows
+    private void updateConfig(String dataId, String content) {
+        MockDiamondServer.setConfigInfo(DiamondCacheFlusher.GROUP, dataId, content);
+        MockDiamondServer.updateDiamond(DiamondCacheFlusher.GROUP, dataId, content).get();
     }
 }
@@ -0,0 +1,46 @@
+package com.github.bingoohuang.westcache.flusher;
+
+import com.google.common.collect.Lists;
+import lombok.val;
+import org.junit.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * @author bingoohuang [bingoohuang@gmail.com] Created on 2026/10/19.
+ */
+public class FlusherBeanMatcherTest {
+    private WestCacheFlusherBean bean(String cacheKey, String keyMatch) {
+        return new WestCacheFlusherBean(cacheKey, keyMatch, 0, "none", null);
+    }
+
+    @Test
+    public void find() {
+        val fullBean = bean("PengService.getCities_11", "full");
+        val shortPrefix = bean("PengService", "prefix");
+        val longPrefix = bean("PengService.getCities", "prefix");
+        val regexBean = bean("Dict\\.get.*", "regex");
+        val badRegex = bean("Dict[", "regex");
+        val matcher = new FlusherBeanMatcher(Lists.newArrayList(
+                regexBean, badRegex, longPrefix, shortPrefix, fullBean));
+
+        assertThat(matcher.find("PengService.getCities_11")).isSameAs(fullBean);
+        assertThat(matcher.find("PengService.getCities_22")).isSameAs(longPrefix);
+        assertThat(matcher.find("PengService.getCities")).isSameAs(longPrefix);
+        assertThat(matcher.find("PengService.getProvinces")).isSameAs(shortPrefix);
+        assertThat(matcher.find("PengService.getCitiesJSON_11")).isSameAs(shortPrefix);
+        assertThat(matcher.find("PengServiceImpl.getCities")).isNull();
+        assertThat(matcher.find("Dict.getNames")).isSameAs(regexBean);
+        assertThat(matcher.find("Dict.getNames")).isSameAs(regexBean);
+        assertThat(matcher.find("Dict.names")).isNull();
+    }
+
+    @Test
+    public void firstPrefixInTableOrderWins() {
+        val shortPrefix = bean("PengService", "prefix");
+        val longPrefix = bean("PengService.getCities", "prefix");
+        val matcher = new FlusherBeanMatcher(Lists.newArrayList(shortPrefix, longPrefix));
+
+        assertThat(matcher.find("PengService.getCities_22")).isSameAs(shortPrefix);
+    }
+}
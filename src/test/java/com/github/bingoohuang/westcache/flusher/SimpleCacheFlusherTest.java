@@ -0,0 +1,188 @@
+package com.github.bingoohuang.westcache.flusher;
+
+import com.github.bingoohuang.westcache.base.WestCacheItem;
+import com.github.bingoohuang.westcache.manager.GuavaCacheManager;
+import com.github.bingoohuang.westcache.utils.WestCacheOption;
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * @author bingoohuang [bingoohuang@gmail.com] Created on 2026/10/19.
+ */
+public class SimpleCacheFlusherTest {
+    @Test
+    public void prefixKeys() {
+        val flusher = new SimpleCacheFlusher();
+        val cache = new GuavaCacheManager.GuavaWestCache();
+        for (val key : new String[]{"PengService.getCities", "PengService.getCities_11",
+                "PengService.getCities.22", "PengService.getCitiesJSON_11",
+                "PengService.getCitieS_33", "PengService.getCit_44", "Peng"}) {
+            flusher.register(null, key, cache);
+        }
+
+        assertThat(flusher.getPrefixKeys("PengService.getCities")).containsExactly(
+                "PengService.getCities", "PengService.getCities.22", "PengService.getCities_11");
+        assertThat(flusher.getPrefixKeys("PengService")).hasSize(6);
+        assertThat(flusher.getPrefixKeys("PengService.getCity")).isEmpty();
+
+        flusher.getRegistry().invalidate("PengService.getCities.22");
+        assertThat(flusher.getPrefixKeys("PengService.getCities")).containsExactly(
+                "PengService.getCities", "PengService.getCities_11");
+
+        flusher.getRegistry().invalidate("PengService.getCities_11");
+        flusher.register(null, "PengService.getCities_11", cache);
+        assertThat(flusher.getPrefixKeys("PengService.getCities")).containsExactly(
+                "PengService.getCities", "PengService.getCities_11");
+    }
+
+    @Test @SneakyThrows
+    public void reloadMode() {
+        val flusher = new SimpleCacheFlusher();
+        val puts = new CountDownLatch(3);
+        val cache = new GuavaCacheManager.GuavaWestCache() {
+            @Override
+            public void put(WestCacheOption option, String cacheKey, WestCacheItem cacheValue) {
+                super.put(option, cacheKey, cacheValue);
+                puts.countDown();
+            }
+        };
+        val option = WestCacheOption.builder().specs("flushMode=reload").build();
+        val key = "SimpleCacheFlusherTest.reloadMode";
+
+        val loads = new AtomicInteger();
+        val gate = new CountDownLatch(1);
+        flusher.register(option, key, cache);
+        flusher.registerLoader(option, key, () -> {
+            gate.await();
+            return new WestCacheItem(Optional.of("v" + loads.incrementAndGet()), option);
+        });
+        cache.put(option, key, new WestCacheItem(Optional.of("v0"), option));
+
+        assertThat(flusher.flush(option, key, "1")).isTrue();
+        assertThat(flusher.flush(option, key, "2")).isTrue();
+        assertThat(flusher.flush(option, key, "3")).isTrue();
+        assertThat(cache.getIfPresent(option, key).getObject().get()).isEqualTo("v0");
+
+        // the flushes during the reload are merged into one more reload, puts: v0, v1, v2
+        gate.countDown();
+        assertThat(puts.await(3, TimeUnit.SECONDS)).isTrue();
+        assertThat(cache.getIfPresent(option, key).getObject().get()).isEqualTo("v2");
+        assertThat(loads.get()).isEqualTo(2);
+
+        val invalidated = "SimpleCacheFlusherTest.invalidated";
+        val defaultOption = WestCacheOption.builder().build();
+        flusher.register(defaultOption, invalidated, cache);
+        flusher.registerLoader(defaultOption, invalidated, () -> null);
+        cache.put(defaultOption, invalidated, new WestCacheItem(Optional.of("v0"), defaultOption));
+        flusher.flush(defaultOption, invalidated, "1");
+        assertThat(cache.getIfPresent(defaultOption, invalidated)).isNull();
+    }
+
+    @Test @SneakyThrows
+    public void coalesceFlushes() {
+        final List<String> invalidated = Lists.newArrayList();
+        val cache = new GuavaCacheManager.GuavaWestCache() {
+            @Override
+            public void invalidate(WestCacheOption option, String cacheKey, String version) {
+                synchronized (invalidated) {
+                    invalidated.add(cacheKey + ":" + version);
+                }
+                super.invalidate(option, cacheKey, version);
+            }
+        };
+        val flusher = new SimpleCacheFlusher();
+        flusher.setFlushCoalesceMillis(200L);
+        val option = WestCacheOption.builder().build();
+        flusher.register(option, "key1", cache);
+        flusher.register(option, "key2", cache);
+
+        for (val version : new String[]{"1", "3", "12", "2"}) {
+            assertThat(flusher.flush(option, "key1", version)).isTrue();
+        }
+        assertThat(flusher.flush(option, "key2", "x")).isTrue();
+        assertThat(flusher.flush(option, "key3", "1")).isFalse();
+        assertThat(invalidated).isEmpty();
+        assertThat(flusher.getCoalescer().getCoalescedTimes()).isEqualTo(3L);
+
+        Thread.sleep(500L);
+        synchronized (invalidated) {
+            assertThat(invalidated).containsExactly("key1:12", "key2:x");
+        }
+
+        flusher.setFlushCoalesceMillis(0);
+        flusher.flush(option, "key1", "13");
+        assertThat(invalidated).contains("key1:13");
+    }
+
+    @Test
+    public void higherVersion() {
+        assertThat(FlushCoalescer.higherVersion("9", "10")).isEqualTo("10");
+        assertThat(FlushCoalescer.higherVersion("10", "9")).isEqualTo("10");
+        assertThat(FlushCoalescer.higherVersion("a", "b")).isEqualTo("b");
+        assertThat(FlushCoalescer.higherVersion(null, "1")).isEqualTo("1");
+        assertThat(FlushCoalescer.higherVersion("1", null)).isEqualTo("1");
+        assertThat(FlushCoalescer.higherVersion("k=10", "k=9")).isEqualTo("k=10");
+        assertThat(FlushCoalescer.higherVersion("k=9", "p=1")).isEqualTo("p=1");
+    }
+
+    @Test
+    public void skipSameVersion() {
+        val option = WestCacheOption.builder().flusher("simple").build();
+        val flusher = (SimpleCacheFlusher) option.getFlusher();
+        val manager = new GuavaCacheManager();
+        val key = "SimpleCacheFlusherTest.skipSameVersion";
+        val loads = new AtomicInteger();
+        Callable<WestCacheItem> loader = () -> new WestCacheItem(Optional.of(loads.incrementAndGet()), option);
+
+        assertThat(manager.get(option, key, loader).orNull()).isEqualTo(1);
+
+        flusher.flush(option, key, "2");
+        val item = manager.get(option, key, loader);
+        assertThat(item.orNull()).isEqualTo(2);
+        assertThat(item.getVersion()).isEqualTo("2");
+
+        flusher.flush(option, key, "2");
+        assertThat(manager.get(option, key, loader).orNull()).isEqualTo(2);
+
+        flusher.flush(option, key, "3");
+        assertThat(manager.get(option, key, loader).orNull()).isEqualTo(3);
+
+        flusher.flush(option, key, "");
+        assertThat(manager.get(option, key, loader).orNull()).isEqualTo(4);
+    }
+
+    @Test
+    public void flushMetrics() {
+        val option = WestCacheOption.builder().flusher("simple").build();
+        val flusher = (SimpleCacheFlusher) option.getFlusher();
+        val manager = new GuavaCacheManager();
+        val key = "FlushMetricsTest.get_1";
+        Callable<WestCacheItem> loader = () -> new WestCacheItem(Optional.of("x"), option);
+        manager.get(option, key, loader);
+
+        flusher.flush(option, key, "1", System.currentTimeMillis() - 1000);
+        manager.get(option, key, loader);
+
+        val type = SimpleCacheFlusher.class.getSimpleName();
+        val detected = FlushMetrics.getHistogram(
+                new FlushMetrics.MetricKey(type, "FlushMetricsTest", FlushMetrics.Stage.DETECTED));
+        assertThat(detected.getCount()).isEqualTo(1L);
+        assertThat(detected.getMax()).isAtLeast(1000L);
+
+        for (val stage : new FlushMetrics.Stage[]{FlushMetrics.Stage.INVALIDATED, FlushMetrics.Stage.RELOADED}) {
+            val histogram = FlushMetrics.getHistogram(new FlushMetrics.MetricKey(type, "FlushMetricsTest", stage));
+            assertThat(histogram.getCount()).isEqualTo(1L);
+        }
+    }
+}
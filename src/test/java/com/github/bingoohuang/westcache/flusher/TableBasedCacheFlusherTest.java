@@ -0,0 +1,67 @@
+package com.github.bingoohuang.westcache.flusher;
+
+import com.github.bingoohuang.westcache.base.WestCacheItem;
+import com.github.bingoohuang.westcache.manager.GuavaCacheManager;
+import com.github.bingoohuang.westcache.utils.WestCacheOption;
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import lombok.val;
+import org.junit.Test;
+
+import java.util.List;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * @author bingoohuang [bingoohuang@gmail.com] Created on 2026/10/19.
+ */
+public class TableBasedCacheFlusherTest {
+    static class MemoryFlusher extends TableBasedCacheFlusher {
+        List<WestCacheFlusherBean> beans = Lists.newArrayList();
+
+        @Override protected List<WestCacheFlusherBean> queryAllBeans() {
+            return Lists.newArrayList(beans);
+        }
+
+        @Override protected Object readDirectValue(WestCacheOption option,
+                                                   WestCacheFlusherBean bean,
+                                                   DirectValueType type) {
+            return null;
+        }
+    }
+
+    @Test
+    public void prefixAndFullRowsOfSameVersion() {
+        val option = WestCacheOption.builder().build();
+        val fullKey = "VersionService.get_1";
+        val flusher = new MemoryFlusher();
+        flusher.beans.add(new WestCacheFlusherBean(fullKey, "full", 1, "none", null));
+        flusher.beans.add(new WestCacheFlusherBean("VersionService.get", "prefix", 0, "none", null));
+        flusher.checkBeans(option, fullKey);
+
+        val cache = new GuavaCacheManager.GuavaWestCache();
+        flusher.register(option, fullKey, cache);
+        val item = new WestCacheItem(Optional.of("v1"), option);
+        item.setVersion(flusher.getVersion(option, fullKey));
+        cache.put(option, fullKey, item);
+        assertThat(item.getVersion()).isEqualTo(fullKey + "=1");
+
+        // the prefix row upgraded to the same version number as the full row
+        flusher.beans.set(1, new WestCacheFlusherBean("VersionService.get", "prefix", 1, "none", null));
+        flusher.checkBeans(option, fullKey);
+        assertThat(cache.getIfPresent(option, fullKey)).isNull();
+    }
+
+    @Test
+    public void versionsRemovedOnUnregister() {
+        val option = WestCacheOption.builder().build();
+        val flusher = new SimpleCacheFlusher();
+        val cache = new GuavaCacheManager.GuavaWestCache();
+        flusher.register(option, "VersionService.get_2", cache);
+        flusher.flush(option, "VersionService.get_2", "3");
+        assertThat(flusher.getVersion(option, "VersionService.get_2")).isEqualTo("3");
+
+        flusher.getRegistry().invalidate("VersionService.get_2");
+        assertThat(flusher.getVersion(option, "VersionService.get_2")).isNull();
+    }
+}
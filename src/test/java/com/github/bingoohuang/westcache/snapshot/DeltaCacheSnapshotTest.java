@@ -0,0 +1,142 @@
+package com.github.bingoohuang.westcache.snapshot;
+
+import com.github.bingoohuang.westcache.base.WestCacheItem;
+import com.github.bingoohuang.westcache.utils.Snapshots;
+import com.github.bingoohuang.westcache.utils.WestCacheOption;
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * @author bingoohuang [bingoohuang@gmail.com] Created on 2026/10/19.
+ */
+public class DeltaCacheSnapshotTest {
+    public interface DictService {
+        Map<String, Integer> dict();
+
+        List<String> rows();
+
+        Map<Object, String> mixed();
+    }
+
+    @SneakyThrows
+    private WestCacheOption option(String methodName) {
+        val method = DictService.class.getMethod(methodName);
+        return WestCacheOption.builder().method(method).build();
+    }
+
+    @Test
+    public void mapDelta() {
+        val snapshot = new DeltaCacheSnapshot(new FileCacheSnapshot());
+        val option = option("dict");
+        val cacheKey = "DeltaCacheSnapshotTest.dict";
+        snapshot.deleteSnapshot(option, cacheKey);
+
+        Map<String, Integer> dict = Maps.newLinkedHashMap();
+        for (int i = 0; i < 100; ++i) dict.put("k" + i, i);
+        snapshot.saveSnapshot(option, cacheKey, new WestCacheItem(Optional.of(dict), option));
+
+        val baseFile = Snapshots.getSnapshotFile(cacheKey);
+        val baseLength = baseFile.length();
+        val deltaFile = Snapshots.getSnapshotFile(cacheKey + DeltaCacheSnapshot.DELTA);
+        assertThat(deltaFile.exists()).isFalse();
+
+        dict.put("k1", 1000);
+        dict.remove("k2");
+        dict.put("new", -1);
+        snapshot.saveSnapshot(option, cacheKey, new WestCacheItem(Optional.of(dict), option));
+        assertThat(baseFile.length()).isEqualTo(baseLength);
+        assertThat(deltaFile.exists()).isTrue();
+
+        assertThat(snapshot.readSnapshot(option, cacheKey).orNull()).isEqualTo(dict);
+        assertThat(new DeltaCacheSnapshot(new FileCacheSnapshot())
+                .readSnapshot(option, cacheKey).orNull()).isEqualTo(dict);
+
+        for (int i = 0; i < 50; ++i) dict.put("k" + i, -i);
+        snapshot.saveSnapshot(option, cacheKey, new WestCacheItem(Optional.of(dict), option));
+        assertThat(deltaFile.exists()).isFalse();
+        assertThat(snapshot.readSnapshot(option, cacheKey).orNull()).isEqualTo(dict);
+
+        snapshot.deleteSnapshot(option, cacheKey);
+        assertThat(snapshot.readSnapshot(option, cacheKey)).isNull();
+    }
+
+    @Test
+    public void listDelta() {
+        val snapshot = new DeltaCacheSnapshot(new FileCacheSnapshot());
+        val option = option("rows");
+        val cacheKey = "DeltaCacheSnapshotTest.rows";
+        snapshot.deleteSnapshot(option, cacheKey);
+
+        List<String> rows = Lists.newArrayList();
+        for (int i = 0; i < 100; ++i) rows.add("row" + i);
+        snapshot.saveSnapshot(option, cacheKey, new WestCacheItem(Optional.of(rows), option));
+
+        rows.set(50, "changed");
+        rows.add(52, "inserted");
+        rows.remove(55);
+        snapshot.saveSnapshot(option, cacheKey, new WestCacheItem(Optional.of(rows), option));
+
+        val deltaFile = Snapshots.getSnapshotFile(cacheKey + DeltaCacheSnapshot.DELTA);
+        assertThat(deltaFile.exists()).isTrue();
+        assertThat(snapshot.readSnapshot(option, cacheKey).orNull()).isEqualTo(rows);
+
+        snapshot.deleteSnapshot(option, cacheKey);
+    }
+
+    @Test
+    public void deltaAfterRestart() {
+        val option = option("dict");
+        val cacheKey = "DeltaCacheSnapshotTest.restart";
+        new DeltaCacheSnapshot(new FileCacheSnapshot()).deleteSnapshot(option, cacheKey);
+
+        Map<String, Integer> dict = Maps.newLinkedHashMap();
+        for (int i = 0; i < 100; ++i) dict.put("k" + i, i);
+        new DeltaCacheSnapshot(new FileCacheSnapshot())
+                .saveSnapshot(option, cacheKey, new WestCacheItem(Optional.of(dict), option));
+        val baseFile = Snapshots.getSnapshotFile(cacheKey);
+        val baseLength = baseFile.length();
+
+        // a new instance loads the persisted base hashes instead of rebasing
+        val restarted = new DeltaCacheSnapshot(new FileCacheSnapshot());
+        dict.put("k1", 100000);
+        restarted.saveSnapshot(option, cacheKey, new WestCacheItem(Optional.of(dict), option));
+        assertThat(baseFile.length()).isEqualTo(baseLength);
+        assertThat(Snapshots.getSnapshotFile(cacheKey + DeltaCacheSnapshot.DELTA).exists()).isTrue();
+        assertThat(restarted.readSnapshot(option, cacheKey).orNull()).isEqualTo(dict);
+
+        restarted.deleteSnapshot(option, cacheKey);
+        assertThat(Snapshots.getSnapshotFile(cacheKey + DeltaCacheSnapshot.BASE_HASHES).exists()).isFalse();
+    }
+
+    @Test
+    public void keysByJson() {
+        val snapshot = new DeltaCacheSnapshot(new FileCacheSnapshot());
+        val option = option("mixed");
+        val cacheKey = "DeltaCacheSnapshotTest.mixed";
+        snapshot.deleteSnapshot(option, cacheKey);
+
+        Map<Object, String> mixed = Maps.newLinkedHashMap();
+        for (int i = 0; i < 10; ++i) mixed.put("s" + i, "v" + i);
+        mixed.put(1, "number");
+        snapshot.saveSnapshot(option, cacheKey, new WestCacheItem(Optional.of(mixed), option));
+
+        // "1" and 1 are distinct keys, not both "1"
+        mixed.put("1", "string");
+        snapshot.saveSnapshot(option, cacheKey, new WestCacheItem(Optional.of(mixed), option));
+        assertThat(Snapshots.getSnapshotFile(cacheKey + DeltaCacheSnapshot.DELTA).exists()).isTrue();
+        val read = (Map<?, ?>) snapshot.readSnapshot(option, cacheKey).orNull();
+        assertThat(read.get(1)).isEqualTo("number");
+        assertThat(read.get("1")).isEqualTo("string");
+
+        snapshot.deleteSnapshot(option, cacheKey);
+    }
+}
@@ -1,10 +1,14 @@
 package com.github.bingoohuang.westcache.snapshot;
 
 import com.github.bingoohuang.westcache.base.WestCacheItem;
+import com.github.bingoohuang.westcache.utils.Snapshots;
+import com.github.bingoohuang.westcache.utils.WestCacheOption;
+import com.google.common.base.Charsets;
 import com.google.common.base.Optional;
-import com.google.common.io.CharSource;
+import com.google.common.io.ByteSource;
 import com.google.common.io.Files;
 import lombok.SneakyThrows;
+import lombok.val;
 import mockit.Mock;
 import mockit.MockUp;
 import org.junit.Assert;
@@ -12,7 +16,9 @@ import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.charset.Charset;
+import java.io.RandomAccessFile;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static com.google.common.truth.Truth.assertThat;
 
@@ -28,7 +34,7 @@ public class FileCacheSnapshotTest {
 
         new MockUp<Files>() {
             @Mock @SneakyThrows
-            CharSource asCharSource(File file, Charset charset) {
+            ByteSource asByteSource(File file) {
                 throw new IOException("haha its bingoo mock it");
             }
         };
@@ -43,4 +49,142 @@ public class FileCacheSnapshotTest {
 
         Assert.fail();
     }
+
+    public interface CityService {
+        String city();
+
+        List<String> cities();
+
+        CompletableFuture<String> cityAsync();
+    }
+
+    @SneakyThrows
+    private WestCacheOption option(String methodName) {
+        val method = CityService.class.getMethod(methodName);
+        return WestCacheOption.builder().method(method).build();
+    }
+
+    private void save(FileCacheSnapshot snapshot, WestCacheOption option, String cacheKey, Object value) {
+        snapshot.saveSnapshot(option, cacheKey, new WestCacheItem(Optional.of(value), option));
+    }
+
+    @Test @SneakyThrows
+    public void corruptedFallbackToPrevGeneration() {
+        val snapshot = new FileCacheSnapshot();
+        val option = option("city");
+        val cacheKey = "FileCacheSnapshotTest.city";
+        snapshot.deleteSnapshot(option, cacheKey);
+
+        save(snapshot, option, cacheKey, "beijing");
+        save(snapshot, option, cacheKey, "nanjing");
+        assertThat(snapshot.readSnapshot(option, cacheKey).orNull()).isEqualTo("nanjing");
+
+        val snapshotFile = Snapshots.getSnapshotFile(cacheKey);
+        val raf = new RandomAccessFile(snapshotFile, "rw");
+        raf.seek(snapshotFile.length() - 3);
+        raf.write('x');
+        raf.close();
+        assertThat(snapshot.readSnapshot(option, cacheKey).orNull()).isEqualTo("beijing");
+
+        val truncated = new RandomAccessFile(snapshotFile, "rw");
+        truncated.setLength(snapshotFile.length() - 1);
+        truncated.close();
+        assertThat(snapshot.readSnapshot(option, cacheKey).orNull()).isEqualTo("beijing");
+
+        snapshot.deleteSnapshot(option, cacheKey);
+        assertThat(snapshot.readSnapshot(option, cacheKey)).isNull();
+    }
+
+    @Test
+    public void rejectAnotherReturnType() {
+        val snapshot = new FileCacheSnapshot();
+        val cacheKey = "FileCacheSnapshotTest.type";
+        snapshot.deleteSnapshot(option("city"), cacheKey);
+
+        save(snapshot, option("city"), cacheKey, "beijing");
+        assertThat(snapshot.readSnapshot(option("cities"), cacheKey)).isNull();
+        assertThat(snapshot.readSnapshot(option("city"), cacheKey).orNull()).isEqualTo("beijing");
+
+        snapshot.deleteSnapshot(option("city"), cacheKey);
+    }
+
+    @Test @SneakyThrows
+    public void legacyFormat() {
+        val snapshot = new FileCacheSnapshot();
+        val option = option("city");
+        val cacheKey = "FileCacheSnapshotTest.legacy";
+        val snapshotFile = Snapshots.getSnapshotFile(cacheKey);
+        Files.asCharSink(snapshotFile, Charsets.UTF_8).write("\"shanghai\"");
+
+        assertThat(snapshot.readSnapshot(option, cacheKey).orNull()).isEqualTo("shanghai");
+        snapshot.deleteSnapshot(option, cacheKey);
+    }
+
+    @Test @SneakyThrows
+    public void damagedHeaderFallbackToPrevGeneration() {
+        val snapshot = new FileCacheSnapshot();
+        val option = option("city");
+        val cacheKey = "FileCacheSnapshotTest.header";
+        snapshot.deleteSnapshot(option, cacheKey);
+
+        save(snapshot, option, cacheKey, "beijing");
+        save(snapshot, option, cacheKey, "nanjing");
+        val snapshotFile = Snapshots.getSnapshotFile(cacheKey);
+
+        // a damaged hex field of the header
+        damage(snapshotFile, FileCacheSnapshot.MAGIC.length() + 1, 'z');
+        assertThat(snapshot.readSnapshot(option, cacheKey).orNull()).isEqualTo("beijing");
+
+        // a damaged magic, which is not a legacy file of a cached null
+        damage(snapshotFile, 0, 'X');
+        assertThat(snapshot.readSnapshot(option, cacheKey).orNull()).isEqualTo("beijing");
+
+        // shorter than the header
+        Files.asCharSink(snapshotFile, Charsets.UTF_8).write(FileCacheSnapshot.MAGIC + " 01");
+        assertThat(snapshot.readSnapshot(option, cacheKey).orNull()).isEqualTo("beijing");
+
+        Files.asCharSink(snapshotFile, Charsets.UTF_8).write("");
+        assertThat(snapshot.readSnapshot(option, cacheKey).orNull()).isEqualTo("beijing");
+
+        snapshot.deleteSnapshot(option, cacheKey);
+    }
+
+    @SneakyThrows
+    private void damage(File file, long pos, char c) {
+        val raf = new RandomAccessFile(file, "rw");
+        raf.seek(pos);
+        raf.write(c);
+        raf.close();
+    }
+
+    @Test
+    public void prevGenerationCopied() {
+        val snapshot = new FileCacheSnapshot();
+        val option = option("city");
+        val cacheKey = "FileCacheSnapshotTest.prev";
+        snapshot.deleteSnapshot(option, cacheKey);
+
+        save(snapshot, option, cacheKey, "beijing");
+        save(snapshot, option, cacheKey, "nanjing");
+        val snapshotFile = Snapshots.getSnapshotFile(cacheKey);
+        assertThat(snapshotFile.isFile()).isTrue();
+        assertThat(Snapshots.getPrevSnapshotFile(snapshotFile).isFile()).isTrue();
+        assertThat(snapshot.readSnapshot(option, cacheKey).orNull()).isEqualTo("nanjing");
+
+        snapshot.deleteSnapshot(option, cacheKey);
+    }
+
+    @Test
+    public void signatureOfFutureValueType() {
+        val snapshot = new FileCacheSnapshot();
+        val cacheKey = "FileCacheSnapshotTest.async";
+        snapshot.deleteSnapshot(option("city"), cacheKey);
+
+        // the signature is of the completed value type, which the payload is parsed by
+        save(snapshot, option("cityAsync"), cacheKey, "beijing");
+        assertThat(snapshot.readSnapshot(option("city"), cacheKey).orNull()).isEqualTo("beijing");
+        assertThat(snapshot.readSnapshot(option("cityAsync"), cacheKey).orNull()).isEqualTo("beijing");
+
+        snapshot.deleteSnapshot(option("city"), cacheKey);
+    }
 }
@@ -0,0 +1,106 @@
+package com.github.bingoohuang.westcache.snapshot;
+
+import com.github.bingoohuang.westcache.utils.Snapshots;
+import com.google.common.base.Charsets;
+import com.google.common.base.Strings;
+import com.google.common.io.Files;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Comparator;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.FileTime;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * @author bingoohuang [bingoohuang@gmail.com] Created on 2026/10/19.
+ */
+public class FileSnapshotMaintainerTest {
+    private final File home = Files.createTempDir();
+
+    @After @SneakyThrows
+    public void after() {
+        try (val paths = java.nio.file.Files.walk(home.toPath())) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @SneakyThrows
+    private File write(File dir, String name, int size, long lastModified) {
+        dir.mkdirs();
+        val file = new File(dir, name);
+        Files.asCharSink(file, Charsets.UTF_8).write(Strings.repeat("x", size));
+        val time = FileTime.fromMillis(lastModified);
+        java.nio.file.Files.getFileAttributeView(file.toPath(), BasicFileAttributeView.class)
+                .setTimes(time, time, null);
+        return file;
+    }
+
+    @Test
+    public void maintain() {
+        val now = System.currentTimeMillis();
+        val shard = new File(home, "0a");
+        val old = write(shard, "Demo.Service.old.westcache", 100, now - 60000);
+        val fresh = write(shard, "Demo.Service.fresh.westcache", 100, now);
+        val legacy = write(home, "Other.Service.legacy.westcache", 100, now - 30000);
+        val orphan = write(shard, "Demo.Service.gone.123.deleting", 100, now - 60000);
+
+        val maintainer = new FileSnapshotMaintainer(home);
+        assertThat(maintainer.diskUsageByPrefix())
+                .containsExactly("Demo.Service", 200L, "Other.Service", 100L);
+
+        maintainer.setOrphanMillis(1000);
+        maintainer.setMaxTotalBytes(200);
+        assertThat(maintainer.maintain()).isEqualTo(2);
+        assertThat(orphan.exists()).isFalse();
+        assertThat(old.exists()).isFalse();
+        assertThat(legacy.exists()).isTrue();
+        assertThat(fresh.exists()).isTrue();
+
+        maintainer.setMaxIdleMillis(10000);
+        assertThat(maintainer.maintain()).isEqualTo(1);
+        assertThat(legacy.exists()).isFalse();
+        assertThat(fresh.exists()).isTrue();
+    }
+
+    @Test
+    public void touchedByRead() {
+        val now = System.currentTimeMillis();
+        val shard = new File(home, "0b");
+        val read = write(shard, "Demo.Service.read.westcache", 100, now - 60000);
+        val unread = write(shard, "Demo.Service.unread.westcache", 100, now - 60000);
+        Snapshots.touch(read);
+        // the access is persisted as the mtime, like after a restart
+        Snapshots.untouch(read);
+
+        // the access is tracked without the atime, which noatime mounts never update
+        val maintainer = new FileSnapshotMaintainer(home);
+        maintainer.setMaxIdleMillis(10000);
+        assertThat(maintainer.maintain()).isEqualTo(1);
+        assertThat(read.exists()).isTrue();
+        assertThat(unread.exists()).isFalse();
+    }
+
+    @Test
+    public void startByConfig() {
+        assertThat(FileSnapshotMaintainer.startByConfig(home)).isNull();
+
+        System.setProperty(FileSnapshotMaintainer.MAINTAIN_MILLIS, "60000");
+        System.setProperty(FileSnapshotMaintainer.MAX_TOTAL_BYTES, "1024");
+        try {
+            val maintainer = FileSnapshotMaintainer.startByConfig(home);
+            assertThat(maintainer.isStarted()).isTrue();
+            assertThat(maintainer.getMaxTotalBytes()).isEqualTo(1024L);
+            assertThat(maintainer.getMaxIdleMillis()).isEqualTo(0L);
+            maintainer.stop();
+            assertThat(maintainer.isStarted()).isFalse();
+        } finally {
+            System.clearProperty(FileSnapshotMaintainer.MAINTAIN_MILLIS);
+            System.clearProperty(FileSnapshotMaintainer.MAX_TOTAL_BYTES);
+        }
+    }
+}
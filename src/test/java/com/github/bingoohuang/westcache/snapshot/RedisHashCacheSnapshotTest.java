@@ -0,0 +1,138 @@
+package com.github.bingoohuang.westcache.snapshot;
+
+import com.github.bingoohuang.westcache.base.WestCacheItem;
+import com.github.bingoohuang.westcache.utils.EmbeddedRedis;
+import com.github.bingoohuang.westcache.utils.Redis;
+import com.github.bingoohuang.westcache.utils.WestCacheOption;
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import redis.clients.jedis.JedisCommands;
+
+import java.lang.reflect.Proxy;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * @author bingoohuang [bingoohuang@gmail.com] Created on 2026/10/19.
+ */
+public class RedisHashCacheSnapshotTest {
+    public interface CityService {
+        String city(String code);
+    }
+
+    private JedisCommands origin;
+
+    @Before
+    public void before() {
+        // the restore runs in a background thread, so a pooled redis is required
+        origin = Redis.getJedis();
+        Redis.setJedis(Redis.createJedisCommands("127.0.0.1", EmbeddedRedis.port1, 10));
+    }
+
+    @After
+    public void after() {
+        Redis.setJedis(origin);
+    }
+
+    @SneakyThrows
+    private WestCacheOption option() {
+        val method = CityService.class.getMethod("city", String.class);
+        return WestCacheOption.builder().method(method).build();
+    }
+
+    @Test
+    public void restoreAndDelete() {
+        val option = option();
+        val snapshot = new RedisHashCacheSnapshot();
+        snapshot.deleteNamespace(option, "CityService");
+        for (int i = 0; i < 1200; ++i) {
+            val item = new WestCacheItem(Optional.of("city" + i), option);
+            snapshot.saveSnapshot(option, "CityService.city_" + i, item);
+        }
+        assertThat(Redis.getRedis(option).hlen(Redis.PREFIX + "snapshot:CityService")).isEqualTo(1200L);
+
+        val restoredSnapshot = new RedisHashCacheSnapshot();
+        assertThat(restoredSnapshot.restore(option, "CityService")).hasSize(1200);
+        assertThat(restoredSnapshot.readSnapshot(option, "CityService.city_7").orNull()).isEqualTo("city7");
+        assertThat(restoredSnapshot.readSnapshot(option, "CityService.city_7").orNull()).isEqualTo("city7");
+        assertThat(restoredSnapshot.readSnapshot(option, "CityService.city_x")).isNull();
+
+        val deleted = restoredSnapshot.deleteSnapshots(option, "CityService",
+                Lists.newArrayList("CityService.city_1", "CityService.city_2", "CityService.city_x"));
+        assertThat(deleted).isEqualTo(2L);
+        assertThat(restoredSnapshot.readSnapshot(option, "CityService.city_1")).isNull();
+
+        restoredSnapshot.deleteSnapshot(option, "CityService.city_3");
+        assertThat(snapshot.readSnapshot(option, "CityService.city_3")).isNull();
+        assertThat(snapshot.readSnapshot(option, "CityService.city_4").orNull()).isEqualTo("city4");
+
+        snapshot.deleteNamespace(option, "CityService");
+        assertThat(snapshot.restore(option, "CityService")).isEmpty();
+    }
+
+    @Test
+    public void boundedRestore() {
+        val option = option();
+        val snapshot = new RedisHashCacheSnapshot();
+        snapshot.deleteNamespace(option, "CityService");
+        for (int i = 0; i < 1200; ++i) {
+            val item = new WestCacheItem(Optional.of("city" + i), option);
+            snapshot.saveSnapshot(option, "CityService.city_" + i, item);
+        }
+
+        val restoredSnapshot = new RedisHashCacheSnapshot(Redis.PREFIX + "snapshot:", 100);
+        assertThat(restoredSnapshot.restore(option, "CityService")).hasSize(100);
+        for (int i = 0; i < 1200; ++i) {
+            assertThat(restoredSnapshot.readSnapshot(option, "CityService.city_" + i).orNull())
+                    .isEqualTo("city" + i);
+        }
+
+        snapshot.deleteNamespace(option, "CityService");
+    }
+
+    @Test @SneakyThrows
+    public void deleteNamespaceDuringRestore() {
+        val option = option();
+        val snapshot = new RedisHashCacheSnapshot();
+        snapshot.deleteNamespace(option, "CityService");
+        for (int i = 0; i < 1200; ++i) {
+            val item = new WestCacheItem(Optional.of("city" + i), option);
+            snapshot.saveSnapshot(option, "CityService.city_" + i, item);
+        }
+
+        // the scanned entries are returned after the namespace is deleted
+        val redis = Redis.getJedis();
+        Redis.setJedis((JedisCommands) Proxy.newProxyInstance(JedisCommands.class.getClassLoader(),
+                new Class[]{JedisCommands.class}, (proxy, method, args) -> {
+                    val result = method.invoke(redis, args);
+                    if ("hscan".equals(method.getName())) Thread.sleep(200L);
+                    return result;
+                }));
+
+        val restoredSnapshot = new RedisHashCacheSnapshot();
+        // starts the restore in the background
+        assertThat(restoredSnapshot.readSnapshot(option, "CityService.city_0").orNull()).isEqualTo("city0");
+        Thread.sleep(100L);
+        restoredSnapshot.deleteNamespace(option, "CityService");
+
+        Thread.sleep(1000L);
+        for (int i = 1; i < 1200; ++i) {
+            assertThat(restoredSnapshot.readSnapshot(option, "CityService.city_" + i)).isNull();
+        }
+    }
+
+    @Test
+    public void namespace() {
+        val option = option();
+        assertThat(RedisHashCacheSnapshot.namespace(option, "PengService.getCities_11.5")).isEqualTo("PengService");
+        assertThat(RedisHashCacheSnapshot.namespace(option, "abc")).isEqualTo("abc");
+
+        val specOption = WestCacheOption.builder().clone(option).specs("snapshotNamespace=dict").build();
+        assertThat(RedisHashCacheSnapshot.namespace(specOption, "PengService.getCities")).isEqualTo("dict");
+    }
+}
@@ -10,6 +10,8 @@ import org.joda.time.DateTime;
 import org.joda.time.format.DateTimeFormat;
 import org.junit.Test;
 
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.lang.reflect.Method;
 import java.util.Collection;
 import java.util.List;
@@ -155,6 +157,38 @@ public class FastJsonsTest {
     }
 
 
+    @Test @SneakyThrows
+    public void streamMaps() {
+        Method method = FastInterface.class.getMethod("maps");
+        Map<String, FastBean> map = Maps.newLinkedHashMap();
+        for (int i = 0; i < 10000; ++i) {
+            map.put("k" + i, new FastBean("bingoo" + i, i));
+        }
+
+        val writer = new StringWriter();
+        FastJsons.json(map, writer);
+        assertThat(writer.toString()).isEqualTo(FastJsons.json(map));
+
+        Map<String, FastBean> map2 = FastJsons.parse(new StringReader(writer.toString()), method, false);
+        assertThat(map2).isEqualTo(map);
+
+        Map<String, FastBean> map3 = FastJsons.parse(FastJsons.jsonBytes(map), method, false);
+        assertThat(map3).isEqualTo(map);
+    }
+
+    @Test @SneakyThrows
+    public void streamStringPure() {
+        Method method = FastInterface.class.getMethod("string");
+        String str = FastJsons.parse("abc".getBytes("UTF-8"), method, true);
+        assertThat(str).isEqualTo("abc");
+    }
+
+    @Test(expected = JSONException.class) @SneakyThrows
+    public void streamBadJsonBean() {
+        Method method = FastInterface.class.getMethod("bean");
+        FastJsons.parse(new StringReader("{\"name\":\"abc\", \"age\":123"), method, false);
+    }
+
     public static ExtraProcessor extraKeyProcessor = new ExtraProcessor() {
         @Override public void processExtra(Object object, String key, Object value) {
             throw new UnsupportedKeyException(key);
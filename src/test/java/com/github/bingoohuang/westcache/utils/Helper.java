@@ -38,7 +38,7 @@ public class Helper {
     public static void upgradeVersion(String cacheKey,
                                       TableCacheFlusher flusher) {
         val lastExecuted = flusher.getLastExecuted();
-        flusher.getDao().upgradeVersion(cacheKey);
+        flusher.upgradeVersion(cacheKey);
         waitFlushRun(flusher, lastExecuted);
     }
 
@@ -46,7 +46,7 @@ public class Helper {
                                          TableCacheFlusher flusher,
                                          String directValue) {
         val lastExecuted = flusher.getLastExecuted();
-        flusher.getDao().updateDirectValue(cacheKey, directValue);
+        flusher.updateDirectValue(cacheKey, directValue);
         waitFlushRun(flusher, lastExecuted);
     }
 
@@ -57,7 +57,7 @@ public class Helper {
             WestCacheFlusherBean bean) {
         val lastExecuted = flusher.getLastExecuted();
         flusher.getDao().addBean(bean);
-        flusher.getDao().updateDirectValue(cacheKey, directValue);
+        flusher.updateDirectValue(cacheKey, directValue);
         waitFlushRun(flusher, lastExecuted);
     }
 
@@ -72,7 +72,7 @@ public class Helper {
     public static void disableConfigBean(TableCacheFlusher flusher,
                                          WestCacheFlusherBean bean) {
         long lastExecuted = flusher.getLastExecuted();
-        flusher.getDao().disableBean(bean);
+        flusher.disableBean(bean);
         waitFlushRun(flusher, lastExecuted);
     }
 }
@@ -0,0 +1,30 @@
+package com.github.bingoohuang.westcache.utils;
+
+import lombok.val;
+import org.junit.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * @author bingoohuang [bingoohuang@gmail.com] Created on 2026/10/19.
+ */
+public class LatencyHistogramTest {
+    @Test
+    public void percentiles() {
+        val histogram = new LatencyHistogram();
+        assertThat(histogram.getPercentile(50)).isEqualTo(0L);
+
+        for (int i = 1; i <= 100; ++i) {
+            histogram.record(i * 10);
+        }
+        histogram.record(-5);
+
+        assertThat(histogram.getCount()).isEqualTo(101L);
+        assertThat(histogram.getMax()).isEqualTo(1000L);
+        assertThat(histogram.getPercentile(50)).isEqualTo(500L);
+        assertThat(histogram.getPercentile(99)).isEqualTo(1000L);
+        assertThat(histogram.getPercentile(1)).isEqualTo(10L);
+        assertThat(histogram.getBucketCounts()[0]).isEqualTo(1L);
+        assertThat(histogram.getMean()).isWithin(0.1).of(50500.0 / 101);
+    }
+}
@@ -4,7 +4,10 @@ import lombok.SneakyThrows;
 import org.junit.Test;
 
 import java.lang.reflect.Method;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
 
 import static com.google.common.truth.Truth.assertThat;
 
@@ -42,4 +45,26 @@ public class MethodsTest {
         Method parentMethod1 = ParentClass.class.getMethod("method1");
         assertThat(methods).containsExactly(method1, interface1Method1, interface2Method1, parentMethod1);
     }
+
+    public interface FutureService {
+        Future<List<String>> future();
+
+        CompletableFuture<? extends Number> completable();
+
+        List<String> list();
+    }
+
+    @Test @SneakyThrows
+    public void valueType() {
+        Method future = FutureService.class.getMethod("future");
+        assertThat(Methods.isFutureReturn(future)).isTrue();
+        assertThat(Methods.getValueType(future).getTypeName()).isEqualTo("java.util.List<java.lang.String>");
+
+        Method completable = FutureService.class.getMethod("completable");
+        assertThat(Methods.getValueType(completable)).isEqualTo(Number.class);
+
+        Method list = FutureService.class.getMethod("list");
+        assertThat(Methods.isFutureReturn(list)).isFalse();
+        assertThat(Methods.getValueType(list)).isEqualTo(list.getGenericReturnType());
+    }
 }